@@ -3,28 +3,53 @@ import sys
 
 # file structure:
 # Server type
-# 3 constant parameters "paramName value"
+# constant parameters "paramName value" (sort algorithm and 3 parameters of the test)
 # Changing parameter
-# N measures "changingParameterValue avaregeTimeInMillis"
+# N measures "changingParameterValue averageTime [p50 p90 p99 p99.9 max throughput]"
+# usage: Plot.py [--column P99] files...
 
 parameters = {}
 changingParameter = ''
 changingParameterValues = {}
 results = {}
+unit = 'milliseconds'
 
-for filename in sys.argv[1:]:
+arguments = sys.argv[1:]
+column = 'Average'
+if len(arguments) >= 2 and arguments[0] == '--column':
+    column = arguments[1]
+    arguments = arguments[2:]
+
+for filename in arguments:
     with open(filename, 'r') as file:
         type = file.readline().strip()
         results[type] = []
         changingParameterValues[type] = []
-        for i in range(3):
-            paramName, value = file.readline().strip().split(" ", 2)
+        columns = ['Average']
+        line = file.readline().strip()
+        while ' ' in line:
+            paramName, value = line.split(" ", 1)
+            if paramName == 'Columns':
+                columns = value.split(',')
+                line = file.readline().strip()
+                continue
+            if paramName == 'LatencyUnit':
+                unit = value.lower()
+                line = file.readline().strip()
+                continue
+            if paramName == 'SortAlgorithm' and parameters.get(paramName, value) != value:
+                sys.exit('Results of different sort algorithms can not be plotted together')
             parameters[paramName] = value
-        changingParameter = file.readline().strip()
+            line = file.readline().strip()
+        changingParameter = line
         for measure in [x.strip() for x in file.readlines()]:
-            changingParameterValue, time = measure.split(" ", 2)
-            changingParameterValues[type].append(changingParameterValue)
-            results[type].append(int(time))
+            values = measure.split(" ")
+            if not measure or values[0] == 'TotalTime':
+                continue
+            if column not in columns:
+                sys.exit('Unknown column ' + column + ', available: ' + ', '.join(columns))
+            changingParameterValues[type].append(values[0])
+            results[type].append(int(values[1 + columns.index(column)]))
 
 for (k, v) in results.items():
     plt.plot(changingParameterValues[k], v, label=k)
@@ -32,7 +57,10 @@ for (k, v) in results.items():
 plt.legend()
 
 plt.xlabel(changingParameter)
-plt.ylabel('Average time in milliseconds')
+if column == 'Throughput':
+    plt.ylabel('Requests per second')
+else:
+    plt.ylabel(column + ' time in ' + unit)
 title = ''
 for (k, v) in parameters.items():
     title = title + k + '=' + v + '\n'
@@ -12,11 +12,23 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+
 dependencies {
     implementation("org.jetbrains:annotations:16.0.2")
     implementation("com.google.protobuf:protobuf-java:3.15.3")
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.6.0")
-    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.6.0")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.6.0")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.getByName<Test>("test") {
@@ -26,10 +38,30 @@ tasks.getByName<Test>("test") {
 
 application {
     mainClass.set("ru.hse.Main")
+    applicationDefaultJvmArgs = listOf("--add-modules", "jdk.incubator.vector")
 }
 
 tasks.compileJava {
-    options.release.set(11)
+    options.release.set(21)
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+tasks.named<JavaCompile>("compileJmhJava") {
+    options.release.set(21)
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs JMH benchmarks, pass JMH options with -PjmhArgs=\"...\""
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    jvmArgs("--add-modules", "jdk.incubator.vector")
+    val reportFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst {
+        reportFile.parentFile.mkdirs()
+    }
+    val jmhArgs = (project.findProperty("jmhArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+    args(listOf("-prof", "gc", "-rf", "json", "-rff", reportFile.path) + jmhArgs)
 }
 
 val fatJar = task("fatJar", type = Jar::class) {
@@ -45,6 +77,6 @@ val fatJar = task("fatJar", type = Jar::class) {
 
 tasks {
     "build" {
-        dependsOn(fatJar)
+        dependsOn(fatJar, "jmhClasses")
     }
 }
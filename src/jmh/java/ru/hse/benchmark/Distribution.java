@@ -0,0 +1,41 @@
+package ru.hse.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public enum Distribution {
+    RANDOM {
+        @Override
+        public int[] generate(int size, Random random) {
+            return random.ints(size).toArray();
+        }
+    },
+    SMALL {
+        @Override
+        public int[] generate(int size, Random random) {
+            return random.ints(size, 0, 128).toArray();
+        }
+    },
+    SORTED {
+        @Override
+        public int[] generate(int size, Random random) {
+            int[] data = RANDOM.generate(size, random);
+            Arrays.sort(data);
+            return data;
+        }
+    },
+    REVERSED {
+        @Override
+        public int[] generate(int size, Random random) {
+            int[] data = SORTED.generate(size, random);
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                int t = data[i];
+                data[i] = data[j];
+                data[j] = t;
+            }
+            return data;
+        }
+    };
+
+    public abstract int[] generate(int size, Random random);
+}
@@ -0,0 +1,37 @@
+package ru.hse.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hse.utils.IntArraysUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntArraysUtilsBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param({"RANDOM", "SMALL", "SORTED", "REVERSED"})
+    private Distribution distribution;
+
+    private int[] source;
+    private int[] data;
+
+    @Setup
+    public void setUp() {
+        source = distribution.generate(size, new Random(size));
+        data = new int[size];
+    }
+
+    @Benchmark
+    public int[] sort() {
+        System.arraycopy(source, 0, data, 0, size);
+        IntArraysUtils.sort(data);
+        return data;
+    }
+}
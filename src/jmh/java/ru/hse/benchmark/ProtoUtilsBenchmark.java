@@ -0,0 +1,70 @@
+package ru.hse.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+import ru.hse.utils.ProtoUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtoUtilsBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    @Param({"RANDOM", "SMALL"})
+    private Distribution distribution;
+
+    private IntArray array;
+    private ByteBuffer message;
+    private byte[] frame;
+    private final ByteBufferPool pool = new ByteBufferPool();
+    private final OutputStream outputStream = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setUp() {
+        array = new IntArray(42, distribution.generate(size, new Random(size)));
+        ByteBuffer serialized = ProtoUtils.serialize(array);
+        frame = new byte[serialized.remaining()];
+        serialized.get(frame);
+        message = ByteBuffer.wrap(frame, Integer.BYTES, frame.length - Integer.BYTES).slice();
+    }
+
+    @Benchmark
+    public ByteBuffer serialize() {
+        return ProtoUtils.serialize(array);
+    }
+
+    @Benchmark
+    public int serializePooled() {
+        ByteBuffer buffer = ProtoUtils.serialize(array, pool);
+        int size = buffer.remaining();
+        pool.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    public IntArray readArrayFromBuffer() throws IOException {
+        return ProtoUtils.readArray(message.duplicate());
+    }
+
+    @Benchmark
+    public IntArray readArrayFromStream() throws IOException {
+        return ProtoUtils.readArray(new ByteArrayInputStream(frame));
+    }
+
+    @Benchmark
+    public void writeArray() throws IOException {
+        ProtoUtils.writeArray(outputStream, array);
+    }
+}
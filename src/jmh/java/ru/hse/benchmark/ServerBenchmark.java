@@ -0,0 +1,96 @@
+package ru.hse.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.hse.Main.ServerType;
+import ru.hse.data.IntArray;
+import ru.hse.server.Server;
+import ru.hse.server.ServerException;
+import ru.hse.statistics.Statistics;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@Threads(8)
+public class ServerBenchmark {
+    private static final int NUMBER_OF_SERVER_WORKERS = 5;
+
+    @State(Scope.Benchmark)
+    public static class ServerState {
+        @Param({"BLOCKING", "ASYNCHRONOUS", "NON_BLOCKING", "MULTI_REACTOR", "VIRTUAL_THREAD"})
+        private ServerType server;
+
+        @Param({"100", "1000"})
+        private int arraySize;
+
+        @Param({"PROTOBUF"})
+        private WireFormat format;
+
+        private Server instance;
+
+        @Setup(Level.Trial)
+        public void start() throws ServerException {
+            instance = server.getInstance(new Statistics());
+            instance.start(0, NUMBER_OF_SERVER_WORKERS);
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() throws ServerException {
+            instance.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Connection {
+        private Socket socket;
+        private InputStream inputStream;
+        private OutputStream outputStream;
+        private WireFormat format;
+        private int[] data;
+        private int id;
+
+        @Setup(Level.Trial)
+        public void connect(ServerState state) throws IOException, ServerException {
+            format = state.format;
+            data = new Random(state.arraySize).ints(state.arraySize).toArray();
+            socket = new Socket("localhost", state.instance.getPort());
+            socket.setTcpNoDelay(true);
+            inputStream = socket.getInputStream();
+            outputStream = socket.getOutputStream();
+            format.writeTo(outputStream);
+            BatchMode.NONE.writeTo(outputStream);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        public IntArray roundTrip() throws IOException {
+            format.writeArray(outputStream, new IntArray(id++, data));
+            return format.readArray(inputStream);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public IntArray throughput(Connection connection) throws IOException {
+        return connection.roundTrip();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public IntArray latency(Connection connection) throws IOException {
+        return connection.roundTrip();
+    }
+}
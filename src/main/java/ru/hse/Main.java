@@ -1,26 +1,54 @@
 package ru.hse;
 
+import ru.hse.cache.MappedFileTier;
+import ru.hse.cache.ResultCache;
+import ru.hse.client.ArrivalMode;
 import ru.hse.client.Client;
+import ru.hse.client.LoadGeneratorType;
+import ru.hse.metrics.MetricsExporter;
+import ru.hse.pool.SizeClassedPool;
 import ru.hse.server.*;
+import ru.hse.sort.*;
+import ru.hse.statistics.LatencyHistogram;
+import ru.hse.statistics.MeasurementWindow;
+import ru.hse.statistics.Phase;
 import ru.hse.statistics.Statistics;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Scanner;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
     private static final int NUMBER_OF_SERVER_WORKERS = 5;
     private static final int PORT = 8080;
+    private static final Path METRICS_SNAPSHOT_FILE = Path.of("metrics.jsonl");
+    private static final long DEFAULT_METRICS_INTERVAL_MILLIS = 1000;
     private ServerType serverType;
+    private int numberOfEventLoops;
+    private SortType sortType;
+    private WireFormat wireFormat;
+    private BatchMode batchMode;
+    private int batchSize = 1;
+    private int batchLingerMillis;
     private int numberOfElementsInArray;
     private int numberOfClients;
     private int requestsTimeDelta;
     private int numberOfRequestsPerClient;
+    private int parallelSortThreshold;
+    private int maxQueuedTasks;
+    private int resultCacheMegabytes;
+    private int spillFileMegabytes;
+    private int spillThreshold;
+    private int repeatPercent;
+    private ArrivalMode arrivalMode;
+    private LoadGeneratorType loadGeneratorType;
+    private MeasurementWindow measurementWindow;
+    private int metricsPort;
+    private long metricsIntervalMillis;
     private final Scanner scanner = new Scanner(System.in);
     private Parameter changingParameter;
     private int lowerBound;
@@ -28,7 +56,7 @@ public class Main {
     private int step;
     private MetricType metricType;
 
-    private enum ServerType {
+    public enum ServerType {
         BLOCKING {
             @Override
             public Server getInstance(Statistics statistics) {
@@ -61,9 +89,81 @@ public class Main {
             public String toString() {
                 return "NonBlocking";
             }
+        },
+        MULTI_REACTOR {
+            @Override
+            public Server getInstance(Statistics statistics) {
+                return new MultiReactorServer(statistics);
+            }
+
+            @Override
+            public Server getInstance(Statistics statistics, int numberOfEventLoops) {
+                return numberOfEventLoops > 0 ? new MultiReactorServer(statistics, numberOfEventLoops) : getInstance(statistics);
+            }
+
+            @Override
+            public String toString() {
+                return "MultiReactor";
+            }
+        },
+        VIRTUAL_THREAD {
+            @Override
+            public Server getInstance(Statistics statistics) {
+                return new VirtualThreadServer(statistics);
+            }
+
+            @Override
+            public String toString() {
+                return "VirtualThread";
+            }
         };
 
         public abstract Server getInstance(Statistics statistics);
+
+        public Server getInstance(Statistics statistics, int numberOfEventLoops) {
+            return getInstance(statistics);
+        }
+    }
+
+    enum SortType {
+        BUBBLE {
+            @Override
+            public SortAlgorithm getInstance() {
+                return new BubbleSort();
+            }
+        },
+        INSERTION {
+            @Override
+            public SortAlgorithm getInstance() {
+                return new InsertionSort();
+            }
+        },
+        DUAL_PIVOT_QUICK {
+            @Override
+            public SortAlgorithm getInstance() {
+                return new DualPivotQuickSort();
+            }
+        },
+        RADIX {
+            @Override
+            public SortAlgorithm getInstance() {
+                return new RadixSort();
+            }
+        },
+        ADAPTIVE {
+            @Override
+            public SortAlgorithm getInstance() {
+                return new AdaptiveSort();
+            }
+        },
+        SIMD {
+            @Override
+            public SortAlgorithm getInstance() {
+                return SimdSupport.newSortAlgorithm();
+            }
+        };
+
+        public abstract SortAlgorithm getInstance();
     }
 
     private enum Parameter {
@@ -95,18 +195,87 @@ public class Main {
     public Main() {
         askMetricType();
         askServerType();
+        askSortType();
+        askWireFormat();
+        askBatching();
         askNumberOfRequestsPerClient();
         askChangingParameter();
         askBounds();
         askRestParameters();
+        askParallelSortThreshold();
+        askMaxQueuedTasks();
+        askResultCache();
+        askRepeatPercent();
+        askArrivalMode();
+        askLoadGeneratorType();
+        askMeasurementWindow();
+        askMetricsExport();
     }
 
-    public String run() throws ServerException, ExecutionException, InterruptedException {
+    public String run() throws ServerException, ExecutionException, InterruptedException, IOException {
         StringBuilder builder = new StringBuilder();
+        SortAlgorithm sortAlgorithm = sortType.getInstance();
         builder.append(serverType).append(System.lineSeparator());
-        builder.append("NumberOfRequestsPerClient ").
-                append(numberOfRequestsPerClient).
+        if (serverType.equals(ServerType.MULTI_REACTOR)) {
+            builder.append("EventLoops ").
+                    append(numberOfEventLoops).
+                    append(System.lineSeparator());
+        }
+        builder.append("SortAlgorithm ").
+                append(sortAlgorithm).
+                append(System.lineSeparator());
+        builder.append("WireFormat ").
+                append(wireFormat).
+                append(System.lineSeparator());
+        builder.append("BatchMode ").
+                append(batchMode).
+                append(System.lineSeparator());
+        if (batchMode.hasBatchedRequests()) {
+            builder.append("BatchSize ").
+                    append(batchSize).
+                    append(System.lineSeparator());
+            builder.append("BatchLinger ").
+                    append(batchLingerMillis).
+                    append(System.lineSeparator());
+        }
+        builder.append("MaxQueuedTasks ").
+                append(maxQueuedTasks).
+                append(System.lineSeparator());
+        builder.append("ResultCache ").
+                append(resultCacheMegabytes).
+                append(System.lineSeparator());
+        if (spillFileMegabytes > 0) {
+            builder.append("ResultCacheSpill ").
+                    append(spillFileMegabytes).
+                    append(System.lineSeparator());
+            builder.append("ResultCacheSpillThreshold ").
+                    append(spillThreshold).
+                    append(System.lineSeparator());
+        }
+        builder.append("RepeatPercent ").
+                append(repeatPercent).
+                append(System.lineSeparator());
+        builder.append("ArrivalMode ").
+                append(arrivalMode).
                 append(System.lineSeparator());
+        builder.append("LoadGenerator ").
+                append(loadGeneratorType).
+                append(System.lineSeparator());
+        if (measurementWindow.isEnabled()) {
+            builder.append("Warmup ").
+                    append(measurementWindow.getWarmupMillis()).
+                    append(System.lineSeparator());
+            builder.append("SteadyStateTolerance ").
+                    append(measurementWindow.getSteadyStateTolerancePercent()).
+                    append(System.lineSeparator());
+            builder.append("MeasurementTime ").
+                    append(measurementWindow.getMeasurementMillis()).
+                    append(System.lineSeparator());
+        } else {
+            builder.append("NumberOfRequestsPerClient ").
+                    append(numberOfRequestsPerClient).
+                    append(System.lineSeparator());
+        }
         if (!changingParameter.equals(Parameter.ARRAY_SIZE)) {
             builder.append(Parameter.ARRAY_SIZE).
                     append(" ").
@@ -125,12 +294,31 @@ public class Main {
                     append(requestsTimeDelta).
                     append(System.lineSeparator());
         }
+        builder.append("LatencyUnit Microseconds").append(System.lineSeparator());
+        builder.append("Columns Average,P50,P90,P99,P99.9,Max,Throughput");
+        if (hasCorrectedLatencies()) {
+            builder.append(",CorrectedAverage,CorrectedP50,CorrectedP90,CorrectedP99,CorrectedP99.9,CorrectedMax");
+        }
+        if (resultCacheMegabytes > 0) {
+            builder.append(",CacheHits,CacheMisses,CacheEvictions,CacheBytesSaved");
+        }
+        builder.append(System.lineSeparator());
         builder.append(changingParameter).append(System.lineSeparator());
 
         Statistics statistics = new Statistics();
-        Server server = serverType.getInstance(statistics);
+        Server server = serverType.getInstance(statistics, numberOfEventLoops);
+        server.setSortAlgorithm(sortAlgorithm);
+        server.setParallelSortThreshold(parallelSortThreshold);
+        server.setMaxQueuedTasks(maxQueuedTasks);
+        ResultCache resultCache = newResultCache();
+        server.setResultCache(resultCache);
         server.start(PORT, NUMBER_OF_SERVER_WORKERS);
+        MetricsExporter metricsExporter = newMetricsExporter();
+        if (metricsExporter != null) {
+            metricsExporter.setServer(serverType.toString(), server);
+        }
         long start = System.currentTimeMillis();
+        long[] resultCacheCounters = getResultCacheCounters(resultCache);
         while (lowerBound <= upperBound) {
             if (changingParameter.equals(Parameter.ARRAY_SIZE)) {
                 numberOfElementsInArray = lowerBound;
@@ -141,48 +329,151 @@ public class Main {
             if (changingParameter.equals(Parameter.TIME_BETWEEN_REQUESTS)) {
                 requestsTimeDelta = lowerBound;
             }
-            long time = test(statistics);
-            System.out.println(lowerBound + " " + time);
-            builder.append(lowerBound).append(" ").append(time).append(System.lineSeparator());
+            String measures = test(statistics);
+            if (resultCache != null) {
+                long[] lastResultCacheCounters = resultCacheCounters;
+                resultCacheCounters = getResultCacheCounters(resultCache);
+                for (int i = 0; i < resultCacheCounters.length; i++) {
+                    measures += " " + (resultCacheCounters[i] - lastResultCacheCounters[i]);
+                }
+            }
+            printPoolsStatistics(server);
+            printResultCacheStatistics(resultCache);
+            printPhasesStatistics(statistics);
+            System.out.println(lowerBound + " " + measures);
+            builder.append(lowerBound).append(" ").append(measures).append(System.lineSeparator());
             lowerBound += step;
         }
         long totalTime = System.currentTimeMillis() - start;
         builder.append("TotalTime ").append(totalTime).append(System.lineSeparator());
         server.shutdown();
+        if (resultCache != null) {
+            resultCache.close();
+        }
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
 
         return builder.toString();
     }
 
-    private long test(Statistics statistics) throws InterruptedException, ExecutionException {
-        statistics.reset();
-        ExecutorService threadPool = Executors.newCachedThreadPool();
-        List<Future<Void>> futures = threadPool.invokeAll(
-                IntStream.range(0, numberOfClients).mapToObj(
-                        id -> Client.getBuilder().
-                                id(id * numberOfRequestsPerClient).
-                                host("localhost").
-                                port(PORT).
-                                arraySize(numberOfElementsInArray).
-                                delta(requestsTimeDelta).
-                                cycles(numberOfRequestsPerClient).
-                                statistics(statistics).
-                                build()).collect(Collectors.toList())
-        );
-        for (Future<Void> future : futures) {
-            future.get();
-        }
-        threadPool.shutdown();
-        long numberOfMeasurements;
-        long averageTime;
+    private String test(Statistics statistics) throws InterruptedException, ExecutionException {
+        Client.Builder clientBuilder = Client.getBuilder().
+                host("localhost").
+                port(PORT).
+                arraySize(numberOfElementsInArray).
+                delta(requestsTimeDelta).
+                cycles(measurementWindow.isEnabled() ? Integer.MAX_VALUE : numberOfRequestsPerClient).
+                statistics(statistics).
+                wireFormat(wireFormat).
+                batchMode(batchMode).
+                batchSize(batchSize).
+                batchLingerMillis(batchLingerMillis).
+                repeatPercent(repeatPercent).
+                arrivalMode(arrivalMode);
+        measurementWindow.measure(statistics, () -> {
+            loadGeneratorType.run(clientBuilder, numberOfClients);
+            return null;
+        });
+        if (measurementWindow.isEnabled()) {
+            System.out.println("WarmupTime " + measurementWindow.getLastWarmupMillis() +
+                    " SteadyState " + measurementWindow.getSteadyState());
+        }
+        LatencyHistogram latencies;
+        long throughput;
         if (metricType.equals(MetricType.CLIENT)) {
-            numberOfMeasurements = statistics.getNumberOfMeasurementsClients();
-            averageTime = statistics.getAverageTimeInMillisClients();
+            latencies = statistics.getClientLatencies();
+            throughput = statistics.getThroughputClients();
         } else {
-            numberOfMeasurements = statistics.getNumberOfMeasurementsServer();
-            averageTime = statistics.getAverageTimeInMillisServer();
+            latencies = statistics.getServerLatencies();
+            throughput = statistics.getThroughputServer();
+        }
+        System.out.println("NumberOfMeasures " + latencies.getCount());
+        String measures = formatLatencies(latencies) + " " + throughput;
+        if (hasCorrectedLatencies()) {
+            measures += " " + formatLatencies(statistics.getCorrectedClientLatencies());
+        }
+        return measures;
+    }
+
+    private boolean hasCorrectedLatencies() {
+        return metricType.equals(MetricType.CLIENT) && arrivalMode.isOpenLoop();
+    }
+
+    private static String formatLatencies(LatencyHistogram latencies) {
+        return toMicros(latencies.getMean()) + " " +
+                toMicros(latencies.getValueAtPercentile(50)) + " " +
+                toMicros(latencies.getValueAtPercentile(90)) + " " +
+                toMicros(latencies.getValueAtPercentile(99)) + " " +
+                toMicros(latencies.getValueAtPercentile(99.9)) + " " +
+                toMicros(latencies.getMax());
+    }
+
+    static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos + TimeUnit.MICROSECONDS.toNanos(1) / 2);
+    }
+
+    private void printPoolsStatistics(Server server) {
+        System.out.println("ByteBufferPool " + formatPoolStatistics(server.getByteBufferPool()));
+        System.out.println("IntArrayPool " + formatPoolStatistics(server.getIntArrayPool()));
+    }
+
+    private static String formatPoolStatistics(SizeClassedPool<?> pool) {
+        if (pool.getHits() == 0 && pool.getMisses() == 0) {
+            return "n/a";
+        }
+        return pool.getHits() + " " + pool.getMisses();
+    }
+
+    private ResultCache newResultCache() throws IOException {
+        if (resultCacheMegabytes == 0) {
+            return null;
+        }
+        long memoryBytes = (long) resultCacheMegabytes * 1024 * 1024;
+        if (spillFileMegabytes == 0) {
+            return new ResultCache(memoryBytes);
+        }
+        MappedFileTier fileTier = MappedFileTier.create(spillFileMegabytes * 1024 * 1024);
+        return new ResultCache(memoryBytes, fileTier, spillThreshold);
+    }
+
+    private MetricsExporter newMetricsExporter() throws IOException {
+        if (metricsPort == 0 && metricsIntervalMillis == 0) {
+            return null;
+        }
+        return new MetricsExporter(metricsPort,
+                metricsIntervalMillis > 0 ? METRICS_SNAPSHOT_FILE : null,
+                metricsIntervalMillis > 0 ? metricsIntervalMillis : DEFAULT_METRICS_INTERVAL_MILLIS);
+    }
+
+    static long[] getResultCacheCounters(ResultCache resultCache) {
+        if (resultCache == null) {
+            return new long[4];
+        }
+        return new long[]{resultCache.getHits(), resultCache.getMisses(), resultCache.getEvictions(),
+                resultCache.getBytesSaved()};
+    }
+
+    private void printResultCacheStatistics(ResultCache resultCache) {
+        if (resultCache == null) {
+            return;
+        }
+        System.out.println("ResultCache " + resultCache.getHits() + " " + resultCache.getMisses() + " " +
+                resultCache.getEvictions() + " " + resultCache.getBytesSaved());
+    }
+
+    private void printPhasesStatistics(Statistics statistics) {
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram latencies = statistics.getPhaseLatencies(phase);
+            if (latencies.getCount() == 0) {
+                continue;
+            }
+            System.out.println("Phase " + phase + " " + latencies.getCount() + " " +
+                    toMicros(latencies.getMean()) + " " +
+                    toMicros(latencies.getValueAtPercentile(50)) + " " +
+                    toMicros(latencies.getValueAtPercentile(99)) + " " +
+                    toMicros(latencies.getMax()));
         }
-        System.out.println("NumberOfMeasures " + numberOfMeasurements);
-        return averageTime;
     }
 
     public void askMetricType() {
@@ -212,9 +503,11 @@ public class Main {
             System.out.println("1. Blocking");
             System.out.println("2. Asynchronous");
             System.out.println("3. Non blocking");
+            System.out.println("4. Multi reactor");
+            System.out.println("5. Virtual thread");
             printPrefix();
             int type = scanner.nextInt();
-            if (type < 1 || type > 3) {
+            if (type < 1 || type > 5) {
                 System.out.println("Wrong type, try again");
                 continue;
             }
@@ -227,10 +520,123 @@ public class Main {
             if (type == 3) {
                 serverType = ServerType.NON_BLOCKING;
             }
+            if (type == 4) {
+                serverType = ServerType.MULTI_REACTOR;
+                askNumberOfEventLoops();
+            }
+            if (type == 5) {
+                serverType = ServerType.VIRTUAL_THREAD;
+            }
+            return;
+        }
+    }
+
+    private void askNumberOfEventLoops() {
+        int numberOfCores = Runtime.getRuntime().availableProcessors();
+        while (true) {
+            System.out.println("Write number of event loops (0 for number of cores, " + numberOfCores + "):");
+            printPrefix();
+            numberOfEventLoops = scanner.nextInt();
+            if (numberOfEventLoops >= 0) {
+                if (numberOfEventLoops == 0) {
+                    numberOfEventLoops = numberOfCores;
+                }
+                return;
+            }
+            System.out.println("Number must be non negative");
+        }
+    }
+
+    public void askSortType() {
+        while (true) {
+            System.out.println("Chose sort algorithm:");
+            System.out.println("1. Bubble");
+            System.out.println("2. Insertion");
+            System.out.println("3. Dual pivot quick");
+            System.out.println("4. Radix");
+            System.out.println("5. Adaptive");
+            System.out.println("6. SIMD (needs --add-modules jdk.incubator.vector)");
+            printPrefix();
+            int type = scanner.nextInt();
+            if (type < 1 || type > 6) {
+                System.out.println("Wrong type, try again");
+                continue;
+            }
+            sortType = SortType.values()[type - 1];
+            return;
+        }
+    }
+
+    public void askWireFormat() {
+        while (true) {
+            System.out.println("Chose wire format:");
+            System.out.println("1. Protobuf");
+            System.out.println("2. Raw");
+            printPrefix();
+            int type = scanner.nextInt();
+            if (type < 1 || type > 2) {
+                System.out.println("Wrong format, try again");
+                continue;
+            }
+            if (type == 1) {
+                wireFormat = WireFormat.PROTOBUF;
+            }
+            if (type == 2) {
+                wireFormat = WireFormat.RAW;
+            }
+            return;
+        }
+    }
+
+    public void askBatching() {
+        askBatchMode();
+        if (batchMode.hasBatchedRequests()) {
+            askBatchSize();
+            askBatchLinger();
+        }
+    }
+
+    private void askBatchMode() {
+        while (true) {
+            System.out.println("Chose batching:");
+            System.out.println("1. None");
+            System.out.println("2. Batched requests, individual responses");
+            System.out.println("3. Batched requests and responses");
+            printPrefix();
+            int type = scanner.nextInt();
+            if (type < 1 || type > 3) {
+                System.out.println("Wrong type, try again");
+                continue;
+            }
+            batchMode = BatchMode.values()[type - 1];
             return;
         }
     }
 
+    private void askBatchSize() {
+        while (true) {
+            System.out.println("Write max number of arrays in batch:");
+            printPrefix();
+            batchSize = scanner.nextInt();
+            if (batchSize > 0) {
+                return;
+            }
+            System.out.println("Batch size must be positive");
+        }
+    }
+
+    private void askBatchLinger() {
+        while (true) {
+            System.out.println("Write max time in millis to wait for batch to fill (0 to wait for full batch):");
+            printPrefix();
+            batchLingerMillis = scanner.nextInt();
+            if (batchLingerMillis >= 0) {
+                return;
+            }
+            System.out.println("Time must be non negative");
+        }
+    }
+
     public void askNumberOfRequestsPerClient() {
         System.out.println("Write number of requests per client:");
         printPrefix();
@@ -357,11 +763,179 @@ public class Main {
         }
     }
 
+    private void askParallelSortThreshold() {
+        while (true) {
+            System.out.println("Write array size from which sort is parallel (0 to disable):");
+            printPrefix();
+            parallelSortThreshold = scanner.nextInt();
+            if (parallelSortThreshold >= 0) {
+                return;
+            }
+            System.out.println("Array size must be non negative");
+        }
+    }
+
+    private void askMaxQueuedTasks() {
+        while (true) {
+            System.out.println("Write max number of arrays queued on server (0 for unbounded):");
+            printPrefix();
+            maxQueuedTasks = scanner.nextInt();
+            if (maxQueuedTasks >= 0) {
+                return;
+            }
+            System.out.println("Number must be non negative");
+        }
+    }
+
+    private void askResultCache() {
+        while (true) {
+            System.out.println("Write result cache size in MiB (0 to disable):");
+            printPrefix();
+            resultCacheMegabytes = scanner.nextInt();
+            if (resultCacheMegabytes >= 0) {
+                break;
+            }
+            System.out.println("Size must be non negative");
+        }
+        if (resultCacheMegabytes == 0) {
+            return;
+        }
+        while (true) {
+            System.out.println("Write size of file for large results in MiB (0 to disable):");
+            printPrefix();
+            spillFileMegabytes = scanner.nextInt();
+            if (spillFileMegabytes >= 0 && spillFileMegabytes < 2048) {
+                break;
+            }
+            System.out.println("Size must be non negative and less than 2048");
+        }
+        if (spillFileMegabytes == 0) {
+            return;
+        }
+        while (true) {
+            System.out.println("Write array size from which results are stored in file:");
+            printPrefix();
+            spillThreshold = scanner.nextInt();
+            if (spillThreshold > 0) {
+                return;
+            }
+            System.out.println("Array size must be positive");
+        }
+    }
+
+    private void askRepeatPercent() {
+        while (true) {
+            System.out.println("Write percent of arrays that clients send repeatedly:");
+            printPrefix();
+            repeatPercent = scanner.nextInt();
+            if (repeatPercent >= 0 && repeatPercent <= 100) {
+                return;
+            }
+            System.out.println("Percent must be from 0 to 100");
+        }
+    }
+
+    private void askArrivalMode() {
+        while (true) {
+            System.out.println("Chose how clients schedule requests:");
+            System.out.println("1. Closed loop (wait time between requests after each send)");
+            System.out.println("2. Open loop, constant rate (one request per time between requests)");
+            System.out.println("3. Open loop, Poisson arrivals (mean time between requests)");
+            printPrefix();
+            int type = scanner.nextInt();
+            if (type < 1 || type > 3) {
+                System.out.println("Wrong type, try again");
+                continue;
+            }
+            arrivalMode = ArrivalMode.values()[type - 1];
+            return;
+        }
+    }
+
+    private void askLoadGeneratorType() {
+        while (true) {
+            System.out.println("Chose how clients are run:");
+            System.out.println("1. Two platform threads per client");
+            System.out.println("2. Two virtual threads per client");
+            System.out.println("3. Clients multiplexed over a few selector threads");
+            printPrefix();
+            int type = scanner.nextInt();
+            if (type < 1 || type > 3) {
+                System.out.println("Wrong type, try again");
+                continue;
+            }
+            loadGeneratorType = LoadGeneratorType.values()[type - 1];
+            return;
+        }
+    }
+
+    private void askMeasurementWindow() {
+        long measurementMillis;
+        while (true) {
+            System.out.println("Write measurement time in millis (0 to measure from the start until the first client finishes):");
+            printPrefix();
+            measurementMillis = scanner.nextLong();
+            if (measurementMillis >= 0) {
+                break;
+            }
+            System.out.println("Time must be non negative");
+        }
+        if (measurementMillis == 0) {
+            measurementWindow = new MeasurementWindow(0, 0, 0);
+            return;
+        }
+        long warmupMillis;
+        while (true) {
+            System.out.println("Write warmup time in millis, its measurements are discarded:");
+            printPrefix();
+            warmupMillis = scanner.nextLong();
+            if (warmupMillis >= 0) {
+                break;
+            }
+            System.out.println("Time must be non negative");
+        }
+        while (true) {
+            System.out.println("Write allowed throughput deviation in percent to wait for steady state after warmup (0 to disable):");
+            printPrefix();
+            int tolerancePercent = scanner.nextInt();
+            if (tolerancePercent >= 0 && tolerancePercent <= 100) {
+                measurementWindow = new MeasurementWindow(warmupMillis, measurementMillis, tolerancePercent);
+                return;
+            }
+            System.out.println("Percent must be from 0 to 100");
+        }
+    }
+
+    private void askMetricsExport() {
+        while (true) {
+            System.out.println("Write port for live metrics in Prometheus format (0 to disable):");
+            printPrefix();
+            metricsPort = scanner.nextInt();
+            if (metricsPort >= 0 && metricsPort <= 65535 && metricsPort != PORT) {
+                break;
+            }
+            System.out.println("Port must be from 0 to 65535 and differ from server port " + PORT);
+        }
+        while (true) {
+            System.out.println("Write interval in millis to append JSON metrics snapshots to " + METRICS_SNAPSHOT_FILE + " (0 to disable):");
+            printPrefix();
+            metricsIntervalMillis = scanner.nextLong();
+            if (metricsIntervalMillis >= 0) {
+                return;
+            }
+            System.out.println("Interval must be non negative");
+        }
+    }
+
     private void printPrefix() {
         System.out.print(">> ");
     }
 
     public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            MatrixRunner.fromArgs(args).run();
+            return;
+        }
         Main main = new Main();
 
         System.out.println(main.run());
@@ -0,0 +1,400 @@
+package ru.hse;
+
+import ru.hse.cache.ResultCache;
+import ru.hse.client.ArrivalMode;
+import ru.hse.client.Client;
+import ru.hse.client.LoadGeneratorType;
+import ru.hse.metrics.MetricsExporter;
+import ru.hse.server.Server;
+import ru.hse.server.ServerException;
+import ru.hse.statistics.LatencyHistogram;
+import ru.hse.statistics.MeasurementWindow;
+import ru.hse.statistics.Phase;
+import ru.hse.statistics.Statistics;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+public class MatrixRunner {
+    private final List<Main.ServerType> serverTypes;
+    private final List<Integer> numbersOfWorkers;
+    private final List<Integer> numbersOfEventLoops;
+    private final List<Integer> arraySizes;
+    private final List<Integer> numbersOfClients;
+    private final List<Integer> requestsTimeDeltas;
+    private final int numberOfRequestsPerClient;
+    private final int repetitions;
+    private final Main.SortType sortType;
+    private final WireFormat wireFormat;
+    private final BatchMode batchMode;
+    private final int batchSize;
+    private final int batchLingerMillis;
+    private final int parallelSortThreshold;
+    private final int maxQueuedTasks;
+    private final int resultCacheMegabytes;
+    private final int repeatPercent;
+    private final ArrivalMode arrivalMode;
+    private final LoadGeneratorType loadGeneratorType;
+    private final MeasurementWindow measurementWindow;
+    private final boolean isSeparateProcesses;
+    private final String serverCpus;
+    private final String clientCpus;
+    private final List<String> serverJvmOptions;
+    private final int metricsPort;
+    private final String metricsFile;
+    private final int metricsIntervalMillis;
+    private final Path output;
+    private final OutputFormat outputFormat;
+
+    private static class CellResult {
+        private final Statistics statistics;
+        private final long[] resultCacheCounters;
+
+        private CellResult(Statistics statistics, long[] resultCacheCounters) {
+            this.statistics = statistics;
+            this.resultCacheCounters = resultCacheCounters;
+        }
+    }
+
+    private enum OutputFormat {
+        CSV {
+            @Override
+            public void writeHeader(Writer writer, List<String> columns) throws IOException {
+                writer.write(String.join(",", columns) + System.lineSeparator());
+            }
+
+            @Override
+            public void writeRow(Writer writer, List<String> columns, List<Object> values, boolean isFirst) throws IOException {
+                writer.write(values.stream().map(String::valueOf).collect(Collectors.joining(",")) + System.lineSeparator());
+            }
+
+            @Override
+            public void writeFooter(Writer writer) {
+            }
+        },
+        JSON {
+            @Override
+            public void writeHeader(Writer writer, List<String> columns) throws IOException {
+                writer.write("[");
+            }
+
+            @Override
+            public void writeRow(Writer writer, List<String> columns, List<Object> values, boolean isFirst) throws IOException {
+                StringBuilder builder = new StringBuilder(isFirst ? "" : ",");
+                builder.append(System.lineSeparator()).append("  {");
+                for (int i = 0; i < columns.size(); i++) {
+                    Object value = values.get(i);
+                    builder.append(i == 0 ? "" : ", ").append('"').append(columns.get(i)).append("\": ");
+                    builder.append(value instanceof Number || value instanceof Boolean ? value.toString() : "\"" + value + "\"");
+                }
+                writer.write(builder.append("}").toString());
+            }
+
+            @Override
+            public void writeFooter(Writer writer) throws IOException {
+                writer.write(System.lineSeparator() + "]" + System.lineSeparator());
+            }
+        };
+
+        public abstract void writeHeader(Writer writer, List<String> columns) throws IOException;
+
+        public abstract void writeRow(Writer writer, List<String> columns, List<Object> values, boolean isFirst) throws IOException;
+
+        public abstract void writeFooter(Writer writer) throws IOException;
+    }
+
+    private MatrixRunner(Properties properties) {
+        serverTypes = getList(properties, "servers", "Blocking,Asynchronous,NonBlocking,MultiReactor,VirtualThread").stream().
+                map(name -> parseEnum(Main.ServerType.class, name)).
+                collect(Collectors.toList());
+        numbersOfWorkers = getIntList(properties, "workers", "5", 1);
+        numbersOfEventLoops = getIntList(properties, "eventLoops",
+                String.valueOf(Runtime.getRuntime().availableProcessors()), 1);
+        arraySizes = getIntList(properties, "arraySizes", "1000", 0);
+        numbersOfClients = getIntList(properties, "clients", "10", 1);
+        requestsTimeDeltas = getIntList(properties, "delays", "0", 0);
+        numberOfRequestsPerClient = getInt(properties, "requestsPerClient", "100", 1);
+        repetitions = getInt(properties, "repetitions", "1", 1);
+        sortType = parseEnum(Main.SortType.class, properties.getProperty("sort", "Bubble"));
+        wireFormat = parseEnum(WireFormat.class, properties.getProperty("wireFormat", "Protobuf"));
+        batchMode = parseEnum(BatchMode.class, properties.getProperty("batchMode", "None"));
+        batchSize = getInt(properties, "batchSize", "1", 1);
+        batchLingerMillis = getInt(properties, "batchLinger", "0", 0);
+        parallelSortThreshold = getInt(properties, "parallelSortThreshold", "0", 0);
+        maxQueuedTasks = getInt(properties, "maxQueuedTasks", "0", 0);
+        resultCacheMegabytes = getInt(properties, "resultCache", "0", 0);
+        repeatPercent = getInt(properties, "repeatPercent", "0", 0);
+        arrivalMode = parseEnum(ArrivalMode.class, properties.getProperty("arrivalMode", "ClosedLoop"));
+        loadGeneratorType = parseEnum(LoadGeneratorType.class, properties.getProperty("loadGenerator", "Threads"));
+        measurementWindow = new MeasurementWindow(getInt(properties, "warmup", "0", 0),
+                getInt(properties, "measurementTime", "0", 0),
+                getInt(properties, "steadyStateTolerance", "0", 0));
+        isSeparateProcesses = Boolean.parseBoolean(properties.getProperty("separateProcesses", "false").trim());
+        serverCpus = properties.getProperty("serverCpus", "").trim();
+        clientCpus = properties.getProperty("clientCpus", "").trim();
+        if (!isSeparateProcesses && !(serverCpus.isEmpty() && clientCpus.isEmpty())) {
+            throw new IllegalArgumentException("serverCpus and clientCpus require separateProcesses=true");
+        }
+        serverJvmOptions = Arrays.stream(properties.getProperty("serverJvmOptions", "").trim().split("\\s+")).
+                filter(option -> !option.isEmpty()).
+                collect(Collectors.toList());
+        metricsPort = getInt(properties, "metricsPort", "0", 0);
+        metricsFile = properties.getProperty("metricsFile", "").trim();
+        metricsIntervalMillis = getInt(properties, "metricsInterval", "1000", 1);
+        output = Path.of(properties.getProperty("output", "results/matrix.csv"));
+        outputFormat = output.toString().endsWith(".json") ? OutputFormat.JSON : OutputFormat.CSV;
+    }
+
+    public static MatrixRunner fromArgs(String[] args) throws IOException {
+        return new MatrixRunner(parseArguments(args));
+    }
+
+    static Properties parseArguments(String[] args) throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--config")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("--config requires a path");
+                }
+                try (Reader reader = Files.newBufferedReader(Path.of(args[++i]), StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+            }
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--config")) {
+                i++;
+                continue;
+            }
+            if (!args[i].startsWith("--") || !args[i].contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + args[i]);
+            }
+            String[] option = args[i].substring(2).split("=", 2);
+            properties.setProperty(option[0], option[1]);
+        }
+        return properties;
+    }
+
+    public void run() throws IOException, ServerException, ExecutionException, InterruptedException {
+        List<String> columns = getColumns();
+        int numberOfCells = serverTypes.stream().mapToInt(serverType -> getNumbersOfEventLoops(serverType).size()).sum() *
+                numbersOfWorkers.size() * arraySizes.size() * numbersOfClients.size() * requestsTimeDeltas.size() * repetitions;
+        int cell = 0;
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        if (isSeparateProcesses && !clientCpus.isEmpty()) {
+            ServerProcess.pinCurrentProcess(clientCpus);
+        }
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+             MetricsExporter metricsExporter = isSeparateProcesses ? null
+                     : newMetricsExporter(metricsPort, metricsFile, metricsIntervalMillis)) {
+            outputFormat.writeHeader(writer, columns);
+            for (Main.ServerType serverType : serverTypes) {
+                for (int numberOfEventLoops : getNumbersOfEventLoops(serverType)) {
+                    for (int numberOfWorkers : numbersOfWorkers) {
+                        for (int arraySize : arraySizes) {
+                            for (int numberOfClients : numbersOfClients) {
+                                for (int requestsTimeDelta : requestsTimeDeltas) {
+                                    for (int repetition = 1; repetition <= repetitions; repetition++) {
+                                        cell++;
+                                        System.out.println("Cell " + cell + "/" + numberOfCells + ": " + serverType +
+                                                " eventLoops=" + numberOfEventLoops + " workers=" + numberOfWorkers +
+                                                " arraySize=" + arraySize + " clients=" + numberOfClients +
+                                                " delay=" + requestsTimeDelta + " repetition=" + repetition);
+                                        CellResult result = runCell(metricsExporter, serverType, numberOfEventLoops,
+                                                numberOfWorkers, arraySize, numberOfClients, requestsTimeDelta);
+                                        Statistics statistics = result.statistics;
+                                        List<Object> values = new ArrayList<>(List.of(serverType.toString(), numberOfEventLoops,
+                                                numberOfWorkers, arraySize, numberOfClients, requestsTimeDelta, repetition));
+                                        addLatencies(values, statistics.getClientLatencies());
+                                        values.add(statistics.getThroughputClients());
+                                        addLatencies(values, statistics.getCorrectedClientLatencies());
+                                        addLatencies(values, statistics.getServerLatencies());
+                                        values.add(statistics.getThroughputServer());
+                                        for (Phase phase : Phase.values()) {
+                                            LatencyHistogram latencies = statistics.getPhaseLatencies(phase);
+                                            values.add(Main.toMicros(latencies.getMean()));
+                                            values.add(Main.toMicros(latencies.getValueAtPercentile(99)));
+                                        }
+                                        values.add(measurementWindow.getLastWarmupMillis());
+                                        values.add(measurementWindow.getSteadyState());
+                                        for (long counter : result.resultCacheCounters) {
+                                            values.add(counter);
+                                        }
+                                        outputFormat.writeRow(writer, columns, values, cell == 1);
+                                        writer.flush();
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            outputFormat.writeFooter(writer);
+        }
+        System.out.println("Results are written to " + output);
+    }
+
+    static MetricsExporter newMetricsExporter(int port, String file, int intervalMillis) throws IOException {
+        if (port == 0 && file.isEmpty()) {
+            return null;
+        }
+        return new MetricsExporter(port, file.isEmpty() ? null : Path.of(file), intervalMillis);
+    }
+
+    private List<Integer> getNumbersOfEventLoops(Main.ServerType serverType) {
+        return serverType.equals(Main.ServerType.MULTI_REACTOR) ? numbersOfEventLoops : List.of(0);
+    }
+
+    private CellResult runCell(MetricsExporter metricsExporter, Main.ServerType serverType, int numberOfEventLoops,
+                               int numberOfWorkers, int arraySize, int numberOfClients, int requestsTimeDelta)
+            throws IOException, ServerException, ExecutionException, InterruptedException {
+        if (isSeparateProcesses) {
+            return runCellInServerProcess(serverType, numberOfEventLoops, numberOfWorkers, arraySize, numberOfClients,
+                    requestsTimeDelta);
+        }
+        Statistics statistics = new Statistics();
+        Server server = serverType.getInstance(statistics, numberOfEventLoops);
+        server.setSortAlgorithm(sortType.getInstance());
+        server.setParallelSortThreshold(parallelSortThreshold);
+        server.setMaxQueuedTasks(maxQueuedTasks);
+        ResultCache resultCache = resultCacheMegabytes > 0 ? new ResultCache((long) resultCacheMegabytes * 1024 * 1024) : null;
+        server.setResultCache(resultCache);
+        server.start(0, numberOfWorkers);
+        if (metricsExporter != null) {
+            metricsExporter.setServer(serverType.toString(), server);
+        }
+        try {
+            runLoad(statistics, server.getPort(), arraySize, numberOfClients, requestsTimeDelta);
+        } finally {
+            if (metricsExporter != null) {
+                metricsExporter.setServer(null, null);
+            }
+            server.shutdown();
+            if (resultCache != null) {
+                resultCache.close();
+            }
+        }
+        return new CellResult(statistics, Main.getResultCacheCounters(resultCache));
+    }
+
+    private CellResult runCellInServerProcess(Main.ServerType serverType, int numberOfEventLoops, int numberOfWorkers,
+                                              int arraySize, int numberOfClients, int requestsTimeDelta)
+            throws IOException, ExecutionException, InterruptedException {
+        ServerProcess serverProcess = ServerProcess.launch(List.of(
+                "--server=" + serverType.name(),
+                "--eventLoops=" + numberOfEventLoops,
+                "--workers=" + numberOfWorkers,
+                "--sort=" + sortType.name(),
+                "--parallelSortThreshold=" + parallelSortThreshold,
+                "--maxQueuedTasks=" + maxQueuedTasks,
+                "--resultCache=" + resultCacheMegabytes,
+                "--metricsPort=" + metricsPort,
+                "--metricsFile=" + metricsFile,
+                "--metricsInterval=" + metricsIntervalMillis
+        ), serverCpus, serverJvmOptions);
+        try {
+            runLoad(serverProcess.getStatistics(), serverProcess.getPort(), arraySize, numberOfClients, requestsTimeDelta);
+            serverProcess.collectStatistics();
+        } finally {
+            serverProcess.shutdown();
+        }
+        return new CellResult(serverProcess.getStatistics(), serverProcess.getResultCacheCounters());
+    }
+
+    private void runLoad(Statistics statistics, int port, int arraySize, int numberOfClients, int requestsTimeDelta)
+            throws ExecutionException, InterruptedException {
+        Client.Builder clientBuilder = Client.getBuilder().
+                host("localhost").
+                port(port).
+                arraySize(arraySize).
+                delta(requestsTimeDelta).
+                cycles(measurementWindow.isEnabled() ? Integer.MAX_VALUE : numberOfRequestsPerClient).
+                statistics(statistics).
+                wireFormat(wireFormat).
+                batchMode(batchMode).
+                batchSize(batchSize).
+                batchLingerMillis(batchLingerMillis).
+                repeatPercent(repeatPercent).
+                arrivalMode(arrivalMode);
+        measurementWindow.measure(statistics, () -> {
+            loadGeneratorType.run(clientBuilder, numberOfClients);
+            return null;
+        });
+    }
+
+    private static List<String> getColumns() {
+        List<String> columns = new ArrayList<>(List.of("server", "eventLoops", "workers", "arraySize", "clients", "delay", "repetition"));
+        List<String> measures = List.of("Count", "Mean", "P50", "P90", "P99", "P999", "Max");
+        measures.forEach(measure -> columns.add("client" + measure));
+        columns.add("clientThroughput");
+        measures.forEach(measure -> columns.add("clientCorrected" + measure));
+        measures.forEach(measure -> columns.add("server" + measure));
+        columns.add("serverThroughput");
+        for (Phase phase : Phase.values()) {
+            columns.add("phase" + phase + "Mean");
+            columns.add("phase" + phase + "P99");
+        }
+        columns.add("warmupTime");
+        columns.add("steadyState");
+        columns.addAll(List.of("cacheHits", "cacheMisses", "cacheEvictions", "cacheBytesSaved"));
+        return columns;
+    }
+
+    private static void addLatencies(List<Object> values, LatencyHistogram latencies) {
+        values.add(latencies.getCount());
+        values.add(Main.toMicros(latencies.getMean()));
+        values.add(Main.toMicros(latencies.getValueAtPercentile(50)));
+        values.add(Main.toMicros(latencies.getValueAtPercentile(90)));
+        values.add(Main.toMicros(latencies.getValueAtPercentile(99)));
+        values.add(Main.toMicros(latencies.getValueAtPercentile(99.9)));
+        values.add(Main.toMicros(latencies.getMax()));
+    }
+
+    private static List<String> getList(Properties properties, String name, String defaultValue) {
+        return Arrays.stream(properties.getProperty(name, defaultValue).split(",")).
+                map(String::trim).
+                filter(value -> !value.isEmpty()).
+                collect(Collectors.toList());
+    }
+
+    private static List<Integer> getIntList(Properties properties, String name, String defaultValue, int minValue) {
+        List<Integer> values = getList(properties, name, defaultValue).stream().
+                map(Integer::parseInt).
+                collect(Collectors.toList());
+        if (values.isEmpty() || values.stream().anyMatch(value -> value < minValue)) {
+            throw new IllegalArgumentException(name + " must be a non empty list of numbers not less than " + minValue);
+        }
+        return values;
+    }
+
+    private static int getInt(Properties properties, String name, String defaultValue, int minValue) {
+        int value = Integer.parseInt(properties.getProperty(name, defaultValue).trim());
+        if (value < minValue) {
+            throw new IllegalArgumentException(name + " must be at least " + minValue);
+        }
+        return value;
+    }
+
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String name) {
+        String normalizedName = normalize(name);
+        for (E value : type.getEnumConstants()) {
+            if (normalize(value.name()).equals(normalizedName) || normalize(value.toString()).equals(normalizedName)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " " + name);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,255 @@
+package ru.hse;
+
+import ru.hse.cache.ResultCache;
+import ru.hse.metrics.MetricsExporter;
+import ru.hse.server.Server;
+import ru.hse.statistics.Phase;
+import ru.hse.statistics.Statistics;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+public class ServerProcess {
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+    private static final int ACCEPT_POLL_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final Process process;
+    private final Socket controlSocket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final int port;
+    private final Statistics statistics = new RemoteStatistics();
+    private final long[] resultCacheCounters = new long[4];
+
+    private enum Command {
+        RESET {
+            @Override
+            public void execute(Statistics statistics, ResultCache resultCache, DataOutputStream output) {
+                statistics.reset();
+            }
+        },
+        WARMUP {
+            @Override
+            public void execute(Statistics statistics, ResultCache resultCache, DataOutputStream output) {
+                statistics.startWarmup();
+            }
+        },
+        MEASURE {
+            @Override
+            public void execute(Statistics statistics, ResultCache resultCache, DataOutputStream output) {
+                statistics.startMeasurements();
+            }
+        },
+        STOP {
+            @Override
+            public void execute(Statistics statistics, ResultCache resultCache, DataOutputStream output) {
+                statistics.stopMeasurements();
+            }
+        },
+        STATISTICS {
+            @Override
+            public void execute(Statistics statistics, ResultCache resultCache, DataOutputStream output) throws IOException {
+                statistics.getServerLatencies().writeTo(output);
+                for (Phase phase : Phase.values()) {
+                    statistics.getPhaseLatencies(phase).writeTo(output);
+                }
+                for (long counter : Main.getResultCacheCounters(resultCache)) {
+                    output.writeLong(counter);
+                }
+                output.flush();
+            }
+        },
+        SHUTDOWN {
+            @Override
+            public void execute(Statistics statistics, ResultCache resultCache, DataOutputStream output) {
+            }
+        };
+
+        public abstract void execute(Statistics statistics, ResultCache resultCache, DataOutputStream output) throws IOException;
+    }
+
+    private ServerProcess(Process process, Socket controlSocket) throws IOException {
+        this.process = process;
+        this.controlSocket = controlSocket;
+        input = new DataInputStream(new BufferedInputStream(controlSocket.getInputStream()));
+        output = new DataOutputStream(new BufferedOutputStream(controlSocket.getOutputStream()));
+        port = input.readInt();
+    }
+
+    public static ServerProcess launch(List<String> serverArguments, String cpus, List<String> jvmOptions)
+            throws IOException {
+        try (ServerSocket controlServerSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            controlServerSocket.setSoTimeout(ACCEPT_POLL_MILLIS);
+            List<String> command = new ArrayList<>(getTasksetCommand(cpus));
+            command.add(ProcessHandle.current().info().command().orElse("java"));
+            command.addAll(jvmOptions);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ServerProcess.class.getName());
+            command.addAll(serverArguments);
+            command.add("--control=" + controlServerSocket.getLocalPort());
+            Process process = new ProcessBuilder(command).inheritIO().start();
+            try {
+                return new ServerProcess(process, acceptControlConnection(controlServerSocket, process));
+            } catch (IOException e) {
+                process.destroyForcibly();
+                throw e;
+            }
+        }
+    }
+
+    private static Socket acceptControlConnection(ServerSocket controlServerSocket, Process process) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+        while (true) {
+            try {
+                return controlServerSocket.accept();
+            } catch (SocketTimeoutException e) {
+                if (!process.isAlive()) {
+                    throw new IOException("Server process exited with code " + process.exitValue());
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IOException("Server process did not connect in " + CONNECT_TIMEOUT_MILLIS + " ms");
+                }
+            }
+        }
+    }
+
+    public static void pinCurrentProcess(String cpus) throws IOException, InterruptedException {
+        Process taskset = new ProcessBuilder("taskset", "-a", "-p", "-c", cpus,
+                String.valueOf(ProcessHandle.current().pid())).
+                redirectOutput(ProcessBuilder.Redirect.DISCARD).
+                redirectError(ProcessBuilder.Redirect.INHERIT).
+                start();
+        if (taskset.waitFor() != 0) {
+            throw new IOException("Can not pin process to CPUs " + cpus);
+        }
+    }
+
+    private static List<String> getTasksetCommand(String cpus) {
+        return cpus.isEmpty() ? List.of() : List.of("taskset", "-c", cpus);
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    public long[] getResultCacheCounters() {
+        return resultCacheCounters;
+    }
+
+    public synchronized void collectStatistics() throws IOException {
+        send(Command.STATISTICS);
+        statistics.getServerLatencies().addFrom(input);
+        for (Phase phase : Phase.values()) {
+            statistics.getPhaseLatencies(phase).addFrom(input);
+        }
+        for (int i = 0; i < resultCacheCounters.length; i++) {
+            resultCacheCounters[i] = input.readLong();
+        }
+    }
+
+    public void shutdown() throws IOException, InterruptedException {
+        try {
+            send(Command.SHUTDOWN);
+        } finally {
+            controlSocket.close();
+            if (!process.waitFor(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private synchronized void send(Command command) throws IOException {
+        output.writeByte(command.ordinal());
+        output.flush();
+    }
+
+    private void sendQuietly(Command command) {
+        try {
+            send(command);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private class RemoteStatistics extends Statistics {
+        @Override
+        public void reset() {
+            super.reset();
+            sendQuietly(Command.RESET);
+        }
+
+        @Override
+        public void startWarmup() {
+            super.startWarmup();
+            sendQuietly(Command.WARMUP);
+        }
+
+        @Override
+        public void startMeasurements() {
+            super.startMeasurements();
+            sendQuietly(Command.MEASURE);
+        }
+
+        @Override
+        public void stopMeasurements() {
+            if (isMeasuring()) {
+                super.stopMeasurements();
+                sendQuietly(Command.STOP);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties properties = MatrixRunner.parseArguments(args);
+        Main.ServerType serverType = MatrixRunner.parseEnum(Main.ServerType.class, properties.getProperty("server"));
+        Main.SortType sortType = MatrixRunner.parseEnum(Main.SortType.class, properties.getProperty("sort", "Bubble"));
+        int resultCacheMegabytes = Integer.parseInt(properties.getProperty("resultCache", "0"));
+        Statistics statistics = new Statistics();
+        Server server = serverType.getInstance(statistics, Integer.parseInt(properties.getProperty("eventLoops", "0")));
+        server.setSortAlgorithm(sortType.getInstance());
+        server.setParallelSortThreshold(Integer.parseInt(properties.getProperty("parallelSortThreshold", "0")));
+        server.setMaxQueuedTasks(Integer.parseInt(properties.getProperty("maxQueuedTasks", "0")));
+        ResultCache resultCache = resultCacheMegabytes > 0 ? new ResultCache((long) resultCacheMegabytes * 1024 * 1024) : null;
+        server.setResultCache(resultCache);
+        server.start(0, Integer.parseInt(properties.getProperty("workers", "5")));
+        MetricsExporter metricsExporter = MatrixRunner.newMetricsExporter(
+                Integer.parseInt(properties.getProperty("metricsPort", "0")),
+                properties.getProperty("metricsFile", ""),
+                Integer.parseInt(properties.getProperty("metricsInterval", "1000")));
+        if (metricsExporter != null) {
+            metricsExporter.setServer(serverType.toString(), server);
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(properties.getProperty("control")))) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output.writeInt(server.getPort());
+            output.flush();
+            Command command;
+            do {
+                command = Command.values()[input.readUnsignedByte()];
+                command.execute(statistics, resultCache, output);
+            } while (command != Command.SHUTDOWN);
+        } finally {
+            server.shutdown();
+            if (resultCache != null) {
+                resultCache.close();
+            }
+            if (metricsExporter != null) {
+                metricsExporter.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.hse.cache;
+
+import org.jetbrains.annotations.NotNull;
+import ru.hse.data.IntArray;
+
+public final class ArrayKey {
+    private static final long FIRST_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long SECOND_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+
+    private final int size;
+    private final long firstHash;
+    private final long secondHash;
+
+    private ArrayKey(int size, long firstHash, long secondHash) {
+        this.size = size;
+        this.firstHash = firstHash;
+        this.secondHash = secondHash;
+    }
+
+    @NotNull
+    public static ArrayKey of(IntArray array) {
+        int[] data = array.getData();
+        long firstHash = array.getSize();
+        long secondHash = ~firstHash;
+        for (int i = 0; i < array.getSize(); i++) {
+            firstHash = (firstHash + data[i]) * FIRST_MULTIPLIER;
+            secondHash = Long.rotateLeft(secondHash ^ data[i], 31) * SECOND_MULTIPLIER;
+        }
+        return new ArrayKey(array.getSize(), mix(firstHash), mix(secondHash));
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArrayKey)) {
+            return false;
+        }
+        ArrayKey other = (ArrayKey) o;
+        return size == other.size && firstHash == other.firstHash && secondHash == other.secondHash;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (firstHash ^ firstHash >>> 32);
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ hash >>> 33) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ hash >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.hse.cache;
+
+public interface CacheTier {
+    boolean load(ArrayKey key, int[] array);
+
+    void store(ArrayKey key, int[] original, int[] sorted);
+
+    long getEvictions();
+}
@@ -0,0 +1,93 @@
+package ru.hse.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MappedFileTier implements CacheTier, Closeable {
+    private final FileChannel channel;
+    private final IntBuffer ints;
+    private final int capacity;
+    private final Map<ArrayKey, Long> positions = new LinkedHashMap<>();
+    private long written;
+    private long evictions;
+
+    private MappedFileTier(FileChannel channel, int capacityBytes) throws IOException {
+        this.channel = channel;
+        this.ints = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes).
+                order(ByteOrder.nativeOrder()).
+                asIntBuffer();
+        this.capacity = ints.capacity();
+    }
+
+    @NotNull
+    public static MappedFileTier create(int capacityBytes) throws IOException {
+        Path file = Files.createTempFile("sort-results", ".cache");
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        try {
+            return new MappedFileTier(channel, capacityBytes);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized boolean load(ArrayKey key, int[] array) {
+        Long position = positions.get(key);
+        int size = key.getSize();
+        if (position == null) {
+            return false;
+        }
+        int offset = (int) (position % capacity);
+        if (!ints.slice(offset, size).equals(IntBuffer.wrap(array, 0, size))) {
+            return false;
+        }
+        ints.get(offset + size, array, 0, size);
+        return true;
+    }
+
+    @Override
+    public synchronized void store(ArrayKey key, int[] original, int[] sorted) {
+        int size = 2 * key.getSize();
+        if (size > capacity || positions.containsKey(key)) {
+            return;
+        }
+        int offset = (int) (written % capacity);
+        if (offset + size > capacity) {
+            written += capacity - offset;
+            offset = 0;
+        }
+        long position = written;
+        written += size;
+        Iterator<Long> iterator = positions.values().iterator();
+        while (iterator.hasNext() && iterator.next() + capacity < written) {
+            iterator.remove();
+            evictions++;
+        }
+        ints.put(offset, original, 0, key.getSize());
+        ints.put(offset + key.getSize(), sorted, 0, key.getSize());
+        positions.put(key, position);
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.hse.cache;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MemoryTier implements CacheTier {
+    private final Map<ArrayKey, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long capacityBytes;
+    private long usedBytes;
+    private long evictions;
+
+    public MemoryTier(long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+    }
+
+    @Override
+    public boolean load(ArrayKey key, int[] array) {
+        int[] entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        int size = key.getSize();
+        if (entry == null || !Arrays.equals(entry, 0, size, array, 0, size)) {
+            return false;
+        }
+        System.arraycopy(entry, size, array, 0, size);
+        return true;
+    }
+
+    @Override
+    public void store(ArrayKey key, int[] original, int[] sorted) {
+        int size = key.getSize();
+        long bytes = 2L * size * Integer.BYTES;
+        if (bytes > capacityBytes) {
+            return;
+        }
+        int[] entry = new int[2 * size];
+        System.arraycopy(original, 0, entry, 0, size);
+        System.arraycopy(sorted, 0, entry, size, size);
+        synchronized (this) {
+            if (entries.putIfAbsent(key, entry) != null) {
+                return;
+            }
+            usedBytes += bytes;
+            Iterator<int[]> iterator = entries.values().iterator();
+            while (usedBytes > capacityBytes) {
+                usedBytes -= (long) iterator.next().length * Integer.BYTES;
+                iterator.remove();
+                evictions++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.hse.cache;
+
+import ru.hse.data.IntArray;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ResultCache implements Closeable {
+    private final MemoryTier memoryTier;
+    private final MappedFileTier fileTier;
+    private final int spillThreshold;
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong bytesSaved = new AtomicLong(0);
+
+    public ResultCache(long memoryBytes) {
+        this(memoryBytes, null, Integer.MAX_VALUE);
+    }
+
+    public ResultCache(long memoryBytes, MappedFileTier fileTier, int spillThreshold) {
+        this.memoryTier = new MemoryTier(memoryBytes);
+        this.fileTier = fileTier;
+        this.spillThreshold = spillThreshold;
+    }
+
+    public boolean load(ArrayKey key, IntArray array) {
+        if (getTier(key).load(key, array.getData())) {
+            hits.incrementAndGet();
+            bytesSaved.addAndGet((long) key.getSize() * Integer.BYTES);
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    public void store(ArrayKey key, int[] original, IntArray sortedArray) {
+        getTier(key).store(key, original, sortedArray.getData());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return memoryTier.getEvictions() + (fileTier != null ? fileTier.getEvictions() : 0);
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileTier != null) {
+            fileTier.close();
+        }
+    }
+
+    private CacheTier getTier(ArrayKey key) {
+        return fileTier != null && key.getSize() >= spillThreshold ? fileTier : memoryTier;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.hse.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+class ArraySource {
+    private static final int MAX_NUMBER_OF_REPEATED_ARRAYS = 64;
+
+    private final int arraySize;
+    private final int repeatPercent;
+    private final Random random;
+    private final List<int[]> sentArrays = new ArrayList<>();
+
+    public ArraySource(int arraySize, int repeatPercent, Random random) {
+        this.arraySize = arraySize;
+        this.repeatPercent = repeatPercent;
+        this.random = random;
+    }
+
+    public int[] next() {
+        if (!sentArrays.isEmpty() && random.nextInt(100) < repeatPercent) {
+            return sentArrays.get(random.nextInt(sentArrays.size()));
+        }
+        int[] data = generateArray();
+        if (sentArrays.size() < MAX_NUMBER_OF_REPEATED_ARRAYS) {
+            sentArrays.add(data);
+        } else {
+            sentArrays.set(random.nextInt(MAX_NUMBER_OF_REPEATED_ARRAYS), data);
+        }
+        return data;
+    }
+
+    private int[] generateArray() {
+        return IntStream.generate(random::nextInt).limit(arraySize).toArray();
+    }
+}
@@ -0,0 +1,45 @@
+package ru.hse.client;
+
+import java.util.Random;
+
+public enum ArrivalMode {
+    CLOSED_LOOP {
+        @Override
+        public long nextInterval(long meanIntervalNanos, Random random) {
+            return meanIntervalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "ClosedLoop";
+        }
+    },
+    CONSTANT_RATE {
+        @Override
+        public long nextInterval(long meanIntervalNanos, Random random) {
+            return meanIntervalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "ConstantRate";
+        }
+    },
+    POISSON {
+        @Override
+        public long nextInterval(long meanIntervalNanos, Random random) {
+            return (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+        }
+
+        @Override
+        public String toString() {
+            return "Poisson";
+        }
+    };
+
+    public boolean isOpenLoop() {
+        return this != CLOSED_LOOP;
+    }
+
+    public abstract long nextInterval(long meanIntervalNanos, Random random);
+}
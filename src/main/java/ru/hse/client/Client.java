@@ -2,67 +2,92 @@ package ru.hse.client;
 
 import ru.hse.data.IntArray;
 import ru.hse.statistics.Statistics;
-import ru.hse.utils.ProtoUtils;
+import ru.hse.utils.BatchFrameUtils;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.*;
-import java.util.stream.IntStream;
 
 public class Client implements Callable<Void> {
     private final Map<Integer, Long> measurements = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> intendedTimes = new ConcurrentHashMap<>();
 
     private int id;
     private final String host;
     private final int port;
-    private final int arraySize;
     private final int delta;
     private final int cycles;
     private final Statistics statistics;
+    private final WireFormat wireFormat;
+    private final BatchMode batchMode;
+    private final int batchSize;
+    private final long batchLingerMillis;
+    private final ArrivalMode arrivalMode;
+    private final boolean useVirtualThreads;
+    private final Random r = new Random();
+    private final ArraySource arraySource;
+    private volatile boolean isStopped;
+    private volatile int numberOfSentRequests;
 
     public static Builder getBuilder() {
         return new Builder();
     }
 
-    private Client(int id, String host, int port, int arraySize, int delta, int cycles, Statistics statistics) {
+    private Client(int id, String host, int port, int arraySize, int delta, int cycles, Statistics statistics,
+                   WireFormat wireFormat, BatchMode batchMode, int batchSize, long batchLingerMillis,
+                   int repeatPercent, ArrivalMode arrivalMode, boolean useVirtualThreads) {
         this.id = id;
         this.host = host;
         this.port = port;
-        this.arraySize = arraySize;
         this.delta = delta;
         this.cycles = cycles;
         this.statistics = statistics;
+        this.wireFormat = wireFormat;
+        this.batchMode = batchMode;
+        this.batchSize = batchSize;
+        this.batchLingerMillis = batchLingerMillis;
+        this.arrivalMode = arrivalMode;
+        this.useVirtualThreads = useVirtualThreads;
+        this.arraySource = new ArraySource(arraySize, repeatPercent, r);
     }
 
     @Override
-    public Void call() throws IOException {
+    public Void call() throws IOException, InterruptedException {
         Socket socket = new Socket(host, port);
-        Thread requestsThread = new Thread(() -> {
+        wireFormat.writeTo(socket.getOutputStream());
+        batchMode.writeTo(socket.getOutputStream());
+        Thread.Builder threadBuilder = useVirtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        Thread requestsThread = threadBuilder.start(() -> {
             try {
-                for (int k = 0; k < cycles; k++) {
-                    int[] data = generateArray();
-                    IntArray array = new IntArray(id, data);
-                    long startMillis = System.currentTimeMillis();
-                    measurements.put(id, startMillis);
-                    id++;
-                    ProtoUtils.writeArray(socket.getOutputStream(), array);
-                    long endMillis = System.currentTimeMillis();
-                    Thread.sleep(Math.max(delta - (endMillis - startMillis), 0));
-                }
+                sendRequests(socket.getOutputStream());
             } catch (IOException | InterruptedException e) {
                 e.printStackTrace();
             }
         });
-        requestsThread.start();
         try {
-            for (int k = 0; k < cycles; k++) {
-                IntArray sortedArray = ProtoUtils.readArray(socket.getInputStream());
-                long start = measurements.get(sortedArray.getId());
-                long time = System.currentTimeMillis() - start;
-                statistics.addMeasurementClient(time);
-//                checkData(sortedArray.getData(), sortedArray.getId());
+            int numberOfResponses = 0;
+            int expectedNumberOfResponses = cycles;
+            while (numberOfResponses < expectedNumberOfResponses) {
+                if (batchMode.hasBatchedResponses()) {
+                    List<IntArray> sortedArrays = BatchFrameUtils.readBatch(socket.getInputStream(), wireFormat);
+                    sortedArrays.forEach(this::onResponse);
+                    numberOfResponses += sortedArrays.size();
+                } else {
+                    onResponse(wireFormat.readArray(socket.getInputStream()));
+                    numberOfResponses++;
+                }
+                if (!isStopped && statistics.isLoadFinished()) {
+                    isStopped = true;
+                    requestsThread.join();
+                    expectedNumberOfResponses = numberOfSentRequests;
+                }
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -72,9 +97,70 @@ public class Client implements Callable<Void> {
         return null;
     }
 
-    private final Random r = new Random();
-    private int[] generateArray() {
-        return IntStream.generate(r::nextInt).limit(arraySize).toArray();
+    private void sendRequests(OutputStream outputStream) throws IOException, InterruptedException {
+        List<IntArray> batch = new ArrayList<>();
+        long batchDeadline = 0;
+        long deltaNanos = TimeUnit.MILLISECONDS.toNanos(delta);
+        long intendedTime = System.nanoTime();
+        for (int k = 0; k < cycles && !isStopped; k++) {
+            int[] data = arraySource.next();
+            IntArray array = new IntArray(id, data);
+            long startTime = System.nanoTime();
+            measurements.put(id, startTime);
+            if (arrivalMode.isOpenLoop()) {
+                intendedTimes.put(id, intendedTime);
+            }
+            id++;
+            numberOfSentRequests++;
+            if (!batchMode.hasBatchedRequests()) {
+                wireFormat.writeArray(outputStream, array);
+            } else {
+                if (batch.isEmpty()) {
+                    batchDeadline = batchLingerMillis > 0
+                            ? startTime + TimeUnit.MILLISECONDS.toNanos(batchLingerMillis)
+                            : Long.MAX_VALUE;
+                }
+                batch.add(array);
+                if (batch.size() >= batchSize || k == cycles - 1) {
+                    sendBatch(outputStream, batch);
+                }
+            }
+            long nextTime;
+            if (arrivalMode.isOpenLoop()) {
+                intendedTime += arrivalMode.nextInterval(deltaNanos, r);
+                nextTime = intendedTime;
+            } else {
+                nextTime = startTime + deltaNanos;
+            }
+            while (true) {
+                long now = System.nanoTime();
+                if (!batch.isEmpty() && now >= batchDeadline) {
+                    sendBatch(outputStream, batch);
+                }
+                if (now >= nextTime) {
+                    break;
+                }
+                long wakeUpTime = batch.isEmpty() ? nextTime : Math.min(nextTime, batchDeadline);
+                TimeUnit.NANOSECONDS.sleep(wakeUpTime - now);
+            }
+        }
+        if (!batch.isEmpty()) {
+            sendBatch(outputStream, batch);
+        }
+    }
+
+    private void sendBatch(OutputStream outputStream, List<IntArray> batch) throws IOException {
+        BatchFrameUtils.writeBatch(outputStream, batch, wireFormat);
+        batch.clear();
+    }
+
+    private void onResponse(IntArray sortedArray) {
+        long now = System.nanoTime();
+        statistics.addMeasurementClient(now - measurements.remove(sortedArray.getId()));
+        if (arrivalMode.isOpenLoop()) {
+            statistics.addCorrectedMeasurementClient(now - intendedTimes.remove(sortedArray.getId()));
+        }
+//        checkData(sortedArray.getData(), sortedArray.getId());
     }
 
     private void checkData(int[] sortedData, int id) {
@@ -101,6 +187,13 @@ public class Client implements Callable<Void> {
         private int delta;
         private int cycles;
         private Statistics statistics;
+        private WireFormat wireFormat = WireFormat.PROTOBUF;
+        private BatchMode batchMode = BatchMode.NONE;
+        private int batchSize = 1;
+        private long batchLingerMillis;
+        private int repeatPercent;
+        private ArrivalMode arrivalMode = ArrivalMode.CLOSED_LOOP;
+        private boolean useVirtualThreads;
 
         private Builder() {
 
@@ -141,8 +234,49 @@ public class Client implements Callable<Void> {
             return this;
         }
 
+        public Builder wireFormat(WireFormat wireFormat) {
+            this.wireFormat = wireFormat;
+            return this;
+        }
+
+        public Builder batchMode(BatchMode batchMode) {
+            this.batchMode = batchMode;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder batchLingerMillis(long batchLingerMillis) {
+            this.batchLingerMillis = batchLingerMillis;
+            return this;
+        }
+
+        public Builder repeatPercent(int repeatPercent) {
+            this.repeatPercent = repeatPercent;
+            return this;
+        }
+
+        public Builder arrivalMode(ArrivalMode arrivalMode) {
+            this.arrivalMode = arrivalMode;
+            return this;
+        }
+
+        public Builder useVirtualThreads(boolean useVirtualThreads) {
+            this.useVirtualThreads = useVirtualThreads;
+            return this;
+        }
+
         public Client build() {
-            return new Client(id, host, port, arraySize, delta, cycles, statistics);
+            return new Client(id, host, port, arraySize, delta, cycles, statistics,
+                    wireFormat, batchMode, batchSize, batchLingerMillis, repeatPercent, arrivalMode, useVirtualThreads);
+        }
+
+        public NioLoadGenerator buildLoadGenerator(int numberOfClients) {
+            return new NioLoadGenerator(host, port, arraySize, delta, cycles, statistics,
+                    wireFormat, batchMode, batchSize, batchLingerMillis, repeatPercent, arrivalMode, numberOfClients);
         }
     }
 }
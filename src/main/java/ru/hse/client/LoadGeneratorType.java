@@ -0,0 +1,68 @@
+package ru.hse.client;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public enum LoadGeneratorType {
+    THREADS {
+        @Override
+        public void run(Client.Builder builder, int numberOfClients)
+                throws InterruptedException, ExecutionException {
+            ExecutorService threadPool = Executors.newCachedThreadPool();
+            try {
+                runClients(threadPool, builder.useVirtualThreads(false), numberOfClients);
+            } finally {
+                threadPool.shutdown();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Threads";
+        }
+    },
+    VIRTUAL_THREADS {
+        @Override
+        public void run(Client.Builder builder, int numberOfClients)
+                throws InterruptedException, ExecutionException {
+            try (ExecutorService threadPool = Executors.newVirtualThreadPerTaskExecutor()) {
+                runClients(threadPool, builder.useVirtualThreads(true), numberOfClients);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "VirtualThreads";
+        }
+    },
+    SELECTORS {
+        @Override
+        public void run(Client.Builder builder, int numberOfClients) throws InterruptedException, IOException {
+            builder.buildLoadGenerator(numberOfClients).run();
+        }
+
+        @Override
+        public String toString() {
+            return "Selectors";
+        }
+    };
+
+    public abstract void run(Client.Builder builder, int numberOfClients)
+            throws InterruptedException, ExecutionException, IOException;
+
+    private static void runClients(ExecutorService threadPool, Client.Builder builder, int numberOfClients)
+            throws InterruptedException, ExecutionException {
+        List<Future<Void>> futures = threadPool.invokeAll(
+                IntStream.range(0, numberOfClients).mapToObj(id -> builder.build()).collect(Collectors.toList())
+        );
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+    }
+}
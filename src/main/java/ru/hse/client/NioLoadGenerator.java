@@ -0,0 +1,356 @@
+package ru.hse.client;
+
+import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+import ru.hse.statistics.Statistics;
+import ru.hse.utils.BatchFrameUtils;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+public class NioLoadGenerator {
+    private static final int NUMBER_OF_SELECTORS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int INITIAL_INPUT_BUFFER_SIZE = 4 * 1024;
+
+    private final String host;
+    private final int port;
+    private final int arraySize;
+    private final long deltaNanos;
+    private final int cycles;
+    private final Statistics statistics;
+    private final WireFormat wireFormat;
+    private final BatchMode batchMode;
+    private final int batchSize;
+    private final long batchLingerNanos;
+    private final int repeatPercent;
+    private final ArrivalMode arrivalMode;
+    private final int numberOfClients;
+
+    NioLoadGenerator(String host, int port, int arraySize, int delta, int cycles, Statistics statistics,
+                     WireFormat wireFormat, BatchMode batchMode, int batchSize, long batchLingerMillis,
+                     int repeatPercent, ArrivalMode arrivalMode, int numberOfClients) {
+        this.host = host;
+        this.port = port;
+        this.arraySize = arraySize;
+        this.deltaNanos = TimeUnit.MILLISECONDS.toNanos(delta);
+        this.cycles = cycles;
+        this.statistics = statistics;
+        this.wireFormat = wireFormat;
+        this.batchMode = batchMode;
+        this.batchSize = batchSize;
+        this.batchLingerNanos = TimeUnit.MILLISECONDS.toNanos(batchLingerMillis);
+        this.repeatPercent = repeatPercent;
+        this.arrivalMode = arrivalMode;
+        this.numberOfClients = numberOfClients;
+    }
+
+    public void run() throws IOException, InterruptedException {
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        List<EventLoop> eventLoops = new ArrayList<>();
+        for (int i = 0; i < Math.min(NUMBER_OF_SELECTORS, numberOfClients); i++) {
+            eventLoops.add(new EventLoop(Selector.open()));
+        }
+        for (int i = 0; i < numberOfClients; i++) {
+            EventLoop eventLoop = eventLoops.get(i % eventLoops.size());
+            eventLoop.clients.add(new SimulatedClient(eventLoop));
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (EventLoop eventLoop : eventLoops) {
+            threads.add(Thread.ofPlatform().start(() -> eventLoop.run(address)));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private class EventLoop {
+        private final Selector selector;
+        private final List<SimulatedClient> clients = new ArrayList<>();
+        private final PriorityQueue<SimulatedClient> timers =
+                new PriorityQueue<>(Comparator.comparingLong(client -> client.timerTime));
+        private final ByteBufferPool bufferPool = new ByteBufferPool();
+        private int numberOfActiveClients;
+
+        private EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        public void run(InetSocketAddress address) {
+            try (Selector ignored = selector) {
+                numberOfActiveClients = clients.size();
+                for (SimulatedClient client : clients) {
+                    try {
+                        client.connect(address);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                        client.finish();
+                    }
+                }
+                long timeout = processTimers();
+                while (numberOfActiveClients > 0) {
+                    int n = timeout == 0 ? selector.select() : selector.select(timeout);
+                    if (n > 0) {
+                        processSelectedKeys();
+                    }
+                    timeout = processTimers();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            clients.forEach(SimulatedClient::close);
+        }
+
+        private long processTimers() {
+            while (!timers.isEmpty()) {
+                long now = System.nanoTime();
+                SimulatedClient client = timers.peek();
+                if (client.timerTime > now) {
+                    return Math.max(1, TimeUnit.NANOSECONDS.toMillis(client.timerTime - now));
+                }
+                timers.poll();
+                client.onTimer(now);
+            }
+            return 0;
+        }
+
+        private void processSelectedKeys() {
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                SimulatedClient client = (SimulatedClient) key.attachment();
+                try {
+                    if (key.isValid() && key.isConnectable()) {
+                        client.finishConnect();
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        client.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        client.flush();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    client.finish();
+                }
+            }
+        }
+    }
+
+    private class SimulatedClient {
+        private final EventLoop eventLoop;
+        private final Random random = new Random();
+        private final ArraySource arraySource = new ArraySource(arraySize, repeatPercent, random);
+        private final Map<Integer, Long> startTimes = new HashMap<>();
+        private final Map<Integer, Long> intendedTimes = new HashMap<>();
+        private final Deque<ByteBuffer> outputs = new ArrayDeque<>();
+        private final List<IntArray> batch = new ArrayList<>();
+        private ByteBuffer input = ByteBuffer.allocate(INITIAL_INPUT_BUFFER_SIZE);
+        private SocketChannel channel;
+        private SelectionKey key;
+        private int id;
+        private int numberOfResponses;
+        private long nextSendTime;
+        private long batchDeadline = Long.MAX_VALUE;
+        private long timerTime;
+        private boolean isWaitingForWrite;
+        private boolean isStopped;
+        private boolean isFinished;
+
+        private SimulatedClient(EventLoop eventLoop) {
+            this.eventLoop = eventLoop;
+        }
+
+        public void connect(InetSocketAddress address) throws IOException {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            ByteBuffer handshake = eventLoop.bufferPool.acquire(2);
+            handshake.put(wireFormat.getCode()).put(batchMode.getCode()).flip();
+            outputs.add(handshake);
+            if (channel.connect(address)) {
+                key = channel.register(eventLoop.selector, SelectionKey.OP_READ, this);
+                onConnected();
+            } else {
+                key = channel.register(eventLoop.selector, SelectionKey.OP_CONNECT, this);
+            }
+        }
+
+        public void finishConnect() throws IOException {
+            if (channel.finishConnect()) {
+                key.interestOps(SelectionKey.OP_READ);
+                onConnected();
+            }
+        }
+
+        private void onConnected() throws IOException {
+            flush();
+            nextSendTime = System.nanoTime() + (long) (random.nextDouble() * deltaNanos);
+            schedule(nextSendTime);
+        }
+
+        public void onTimer(long now) {
+            if (isFinished) {
+                return;
+            }
+            if (!outputs.isEmpty()) {
+                isWaitingForWrite = true;
+                return;
+            }
+            isStopped = isStopped || statistics.isLoadFinished();
+            if (!isStopped && id < cycles && now >= nextSendTime) {
+                sendRequest(now);
+            }
+            if (!batch.isEmpty() && (isStopped || now >= batchDeadline)) {
+                sendBatch();
+            }
+            try {
+                flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+                finish();
+                return;
+            }
+            if (isStopped) {
+                if (numberOfResponses >= id) {
+                    finish();
+                }
+                return;
+            }
+            long nextTime = id < cycles ? nextSendTime : Long.MAX_VALUE;
+            if (!batch.isEmpty()) {
+                nextTime = Math.min(nextTime, batchDeadline);
+            }
+            if (nextTime != Long.MAX_VALUE) {
+                schedule(nextTime);
+            }
+        }
+
+        private void sendRequest(long now) {
+            IntArray array = new IntArray(id, arraySource.next());
+            startTimes.put(id, now);
+            if (arrivalMode.isOpenLoop()) {
+                intendedTimes.put(id, nextSendTime);
+                nextSendTime += arrivalMode.nextInterval(deltaNanos, random);
+            } else {
+                nextSendTime = now + deltaNanos;
+            }
+            id++;
+            if (!batchMode.hasBatchedRequests()) {
+                outputs.add(wireFormat.encode(array, eventLoop.bufferPool));
+                return;
+            }
+            if (batch.isEmpty()) {
+                batchDeadline = batchLingerNanos > 0 ? now + batchLingerNanos : Long.MAX_VALUE;
+            }
+            batch.add(array);
+            if (batch.size() >= batchSize || id == cycles) {
+                sendBatch();
+            }
+        }
+
+        private void sendBatch() {
+            outputs.add(BatchFrameUtils.serialize(batch, wireFormat, eventLoop.bufferPool));
+            batch.clear();
+            batchDeadline = Long.MAX_VALUE;
+        }
+
+        private void schedule(long time) {
+            timerTime = time;
+            eventLoop.timers.add(this);
+        }
+
+        public void flush() throws IOException {
+            while (!outputs.isEmpty()) {
+                ByteBuffer output = outputs.peek();
+                channel.write(output);
+                if (output.hasRemaining()) {
+                    break;
+                }
+                eventLoop.bufferPool.release(outputs.poll());
+            }
+            if (!key.isValid()) {
+                return;
+            }
+            if (outputs.isEmpty()) {
+                key.interestOps(SelectionKey.OP_READ);
+                if (isWaitingForWrite) {
+                    isWaitingForWrite = false;
+                    schedule(System.nanoTime());
+                }
+            } else {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        public void read() throws IOException {
+            if (channel.read(input) < 0) {
+                throw new IOException("Server closed connection after " + numberOfResponses + " responses");
+            }
+            input.flip();
+            int headerSize = batchMode.hasBatchedResponses() ? BatchFrameUtils.HEADER_SIZE : wireFormat.getHeaderSize();
+            while (input.remaining() >= headerSize) {
+                ByteBuffer header = input.slice(input.position(), headerSize);
+                int frameSize = batchMode.hasBatchedResponses()
+                        ? BatchFrameUtils.getFrameSize(header)
+                        : wireFormat.getFrameSize(header);
+                if (input.remaining() < frameSize) {
+                    if (frameSize > input.capacity()) {
+                        ByteBuffer buffer = ByteBuffer.allocate(frameSize);
+                        buffer.put(input);
+                        input = buffer;
+                        return;
+                    }
+                    break;
+                }
+                ByteBuffer frame = input.slice(input.position(), frameSize);
+                input.position(input.position() + frameSize);
+                if (batchMode.hasBatchedResponses()) {
+                    BatchFrameUtils.read(frame, wireFormat, int[]::new).forEach(this::onResponse);
+                } else {
+                    onResponse(wireFormat.read(frame, int[]::new));
+                }
+            }
+            input.compact();
+            if (numberOfResponses >= cycles || isStopped && numberOfResponses >= id) {
+                finish();
+            }
+        }
+
+        private void onResponse(IntArray sortedArray) {
+            long now = System.nanoTime();
+            statistics.addMeasurementClient(now - startTimes.remove(sortedArray.getId()));
+            if (arrivalMode.isOpenLoop()) {
+                statistics.addCorrectedMeasurementClient(now - intendedTimes.remove(sortedArray.getId()));
+            }
+            numberOfResponses++;
+        }
+
+        public void finish() {
+            if (isFinished) {
+                return;
+            }
+            isFinished = true;
+            statistics.stopMeasurements();
+            eventLoop.numberOfActiveClients--;
+            close();
+        }
+
+        public void close() {
+            try {
+                if (channel != null && channel.isOpen()) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -3,10 +3,16 @@ package ru.hse.data;
 public class IntArray {
     private final int id;
     private final int[] data;
+    private final int size;
 
     public IntArray(int id, int[] data) {
+        this(id, data, data.length);
+    }
+
+    public IntArray(int id, int[] data, int size) {
         this.id = id;
         this.data = data;
+        this.size = size;
     }
 
     public int getId() {
@@ -16,4 +22,8 @@ public class IntArray {
     public int[] getData() {
         return data;
     }
+
+    public int getSize() {
+        return size;
+    }
 }
@@ -0,0 +1,219 @@
+package ru.hse.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ru.hse.server.Server;
+import ru.hse.statistics.LatencyHistogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class MetricsExporter implements Closeable {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final HttpServer httpServer;
+    private final Path snapshotFile;
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+    private String serverName;
+    private Server server;
+    private double requestRate;
+    private long lastNumberOfRequests;
+    private long lastSampleTime;
+
+    public MetricsExporter(int port, Path snapshotFile, long intervalMillis) throws IOException {
+        this.snapshotFile = snapshotFile;
+        if (snapshotFile != null && snapshotFile.getParent() != null) {
+            Files.createDirectories(snapshotFile.getParent());
+        }
+        if (port > 0) {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            httpServer.createContext("/metrics", this::handleScrape);
+            httpServer.start();
+        } else {
+            httpServer = null;
+        }
+        sampler.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void setServer(String serverName, Server server) {
+        this.serverName = serverName;
+        this.server = server;
+        requestRate = 0;
+        lastNumberOfRequests = server != null ? server.getNumberOfProcessedRequests() : 0;
+        lastSampleTime = System.nanoTime();
+    }
+
+    private synchronized void sample() {
+        if (server == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long numberOfRequests = server.getNumberOfProcessedRequests();
+        requestRate = (numberOfRequests - lastNumberOfRequests) * (double) TimeUnit.SECONDS.toNanos(1)
+                / Math.max(1, now - lastSampleTime);
+        lastNumberOfRequests = numberOfRequests;
+        lastSampleTime = now;
+        if (snapshotFile != null) {
+            try {
+                Files.writeString(snapshotFile, takeSnapshot().toJson() + System.lineSeparator(),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private synchronized Snapshot takeSnapshot() {
+        return server != null ? new Snapshot(serverName, server, requestRate) : null;
+    }
+
+    private void handleScrape(HttpExchange exchange) throws IOException {
+        Snapshot snapshot = takeSnapshot();
+        byte[] body = (snapshot != null ? snapshot.toPrometheus() : "").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length > 0 ? body.length : -1);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+    }
+
+    static String format(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static class Snapshot {
+        private final long timestamp = System.currentTimeMillis();
+        private final String serverName;
+        private final long numberOfRequests;
+        private final double requestRate;
+        private final long latencyCount;
+        private final long latencySum;
+        private final long latencyMax;
+        private final long[] latencyQuantiles = new long[QUANTILES.length];
+        private final int numberOfQueuedTasks;
+        private final int numberOfConnections;
+        private final long numberOfBytesRead;
+        private final long numberOfBytesWritten;
+        private final long byteBufferPoolHits;
+        private final long byteBufferPoolMisses;
+        private final long intArrayPoolHits;
+        private final long intArrayPoolMisses;
+
+        private Snapshot(String serverName, Server server, double requestRate) {
+            this.serverName = serverName;
+            this.requestRate = requestRate;
+            numberOfRequests = server.getNumberOfProcessedRequests();
+            LatencyHistogram latencies = server.getStatistics().getServerLatencies();
+            latencyCount = latencies.getCount();
+            latencySum = latencies.getSum();
+            latencyMax = latencies.getMax();
+            for (int i = 0; i < QUANTILES.length; i++) {
+                latencyQuantiles[i] = latencies.getValueAtPercentile(QUANTILES[i] * 100);
+            }
+            numberOfQueuedTasks = server.getNumberOfQueuedTasks();
+            numberOfConnections = server.getNumberOfConnections();
+            numberOfBytesRead = server.getNumberOfBytesRead();
+            numberOfBytesWritten = server.getNumberOfBytesWritten();
+            byteBufferPoolHits = server.getByteBufferPool().getHits();
+            byteBufferPoolMisses = server.getByteBufferPool().getMisses();
+            intArrayPoolHits = server.getIntArrayPool().getHits();
+            intArrayPoolMisses = server.getIntArrayPool().getMisses();
+        }
+
+        public String toPrometheus() {
+            String labels = "server=\"" + serverName + "\"";
+            StringBuilder builder = new StringBuilder();
+            appendHeader(builder, "server_requests_total", "counter", "Arrays sorted by the server");
+            appendSample(builder, "server_requests_total", labels, numberOfRequests);
+            appendHeader(builder, "server_requests_per_second", "gauge", "Arrays sorted per second over the last interval");
+            appendSample(builder, "server_requests_per_second", labels, requestRate);
+            appendHeader(builder, "server_latency_seconds", "summary", "Server processing time of the current measurement");
+            for (int i = 0; i < QUANTILES.length; i++) {
+                appendSample(builder, "server_latency_seconds", labels + ",quantile=\"" + QUANTILES[i] + "\"",
+                        toSeconds(latencyQuantiles[i]));
+            }
+            appendSample(builder, "server_latency_seconds_sum", labels, toSeconds(latencySum));
+            appendSample(builder, "server_latency_seconds_count", labels, latencyCount);
+            appendHeader(builder, "server_latency_max_seconds", "gauge", "Maximum server processing time of the current measurement");
+            appendSample(builder, "server_latency_max_seconds", labels, toSeconds(latencyMax));
+            appendHeader(builder, "server_queued_tasks", "gauge", "Arrays queued or being sorted");
+            appendSample(builder, "server_queued_tasks", labels, numberOfQueuedTasks);
+            appendHeader(builder, "server_active_connections", "gauge", "Open client connections");
+            appendSample(builder, "server_active_connections", labels, numberOfConnections);
+            appendHeader(builder, "server_read_bytes_total", "counter", "Bytes read from clients");
+            appendSample(builder, "server_read_bytes_total", labels, numberOfBytesRead);
+            appendHeader(builder, "server_written_bytes_total", "counter", "Bytes written to clients");
+            appendSample(builder, "server_written_bytes_total", labels, numberOfBytesWritten);
+            appendHeader(builder, "server_buffer_pool_hits_total", "counter", "Buffers reused from the pool");
+            appendSample(builder, "server_buffer_pool_hits_total", labels + ",pool=\"byte_buffer\"", byteBufferPoolHits);
+            appendSample(builder, "server_buffer_pool_hits_total", labels + ",pool=\"int_array\"", intArrayPoolHits);
+            appendHeader(builder, "server_buffer_pool_misses_total", "counter", "Buffers allocated because the pool was empty");
+            appendSample(builder, "server_buffer_pool_misses_total", labels + ",pool=\"byte_buffer\"", byteBufferPoolMisses);
+            appendSample(builder, "server_buffer_pool_misses_total", labels + ",pool=\"int_array\"", intArrayPoolMisses);
+            return builder.toString();
+        }
+
+        public String toJson() {
+            StringBuilder builder = new StringBuilder("{");
+            builder.append("\"timestamp\": ").append(timestamp);
+            builder.append(", \"server\": \"").append(serverName).append('"');
+            builder.append(", \"requests\": ").append(numberOfRequests);
+            builder.append(", \"requestsPerSecond\": ").append(format(requestRate));
+            builder.append(", \"latencyMicros\": {\"count\": ").append(latencyCount);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                builder.append(", \"p").append(format(QUANTILES[i] * 100)).append("\": ").append(toMicros(latencyQuantiles[i]));
+            }
+            builder.append(", \"max\": ").append(toMicros(latencyMax)).append('}');
+            builder.append(", \"queuedTasks\": ").append(numberOfQueuedTasks);
+            builder.append(", \"activeConnections\": ").append(numberOfConnections);
+            builder.append(", \"bytesRead\": ").append(numberOfBytesRead);
+            builder.append(", \"bytesWritten\": ").append(numberOfBytesWritten);
+            builder.append(", \"byteBufferPool\": {\"hits\": ").append(byteBufferPoolHits);
+            builder.append(", \"misses\": ").append(byteBufferPoolMisses).append('}');
+            builder.append(", \"intArrayPool\": {\"hits\": ").append(intArrayPoolHits);
+            builder.append(", \"misses\": ").append(intArrayPoolMisses).append('}');
+            return builder.append('}').toString();
+        }
+
+        private static void appendHeader(StringBuilder builder, String name, String type, String help) {
+            builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+
+        private static void appendSample(StringBuilder builder, String name, String labels, double value) {
+            builder.append(name).append('{').append(labels).append("} ").append(format(value)).append('\n');
+        }
+
+        private static void appendSample(StringBuilder builder, String name, String labels, long value) {
+            builder.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+        }
+
+        private static double toSeconds(long nanos) {
+            return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        private static long toMicros(long nanos) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.hse.pool;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class ByteBufferPool extends SizeClassedPool<ByteBuffer> {
+    private final boolean isDirect;
+
+    public ByteBufferPool() {
+        this(true);
+    }
+
+    public ByteBufferPool(boolean isDirect) {
+        super(Byte.BYTES);
+        this.isDirect = isDirect;
+    }
+
+    @NotNull
+    public ByteBuffer acquire(int size) {
+        ByteBuffer buffer = acquireItem(size);
+        buffer.clear();
+        buffer.limit(size);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        releaseItem(buffer);
+    }
+
+    @Override
+    protected ByteBuffer allocate(int capacity) {
+        return isDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    protected int capacity(ByteBuffer buffer) {
+        return buffer.isDirect() == isDirect ? buffer.capacity() : -1;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.hse.pool;
+
+import org.jetbrains.annotations.NotNull;
+
+public class IntArrayPool extends SizeClassedPool<int[]> {
+    public IntArrayPool() {
+        super(Integer.BYTES);
+    }
+
+    @NotNull
+    public int[] acquire(int size) {
+        return acquireItem(size);
+    }
+
+    public void release(int[] array) {
+        releaseItem(array);
+    }
+
+    @Override
+    protected int[] allocate(int capacity) {
+        return new int[capacity];
+    }
+
+    @Override
+    protected int capacity(int[] array) {
+        return array.length;
+    }
+}
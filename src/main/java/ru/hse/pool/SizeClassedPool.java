@@ -0,0 +1,72 @@
+package ru.hse.pool;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public abstract class SizeClassedPool<T> {
+    private static final int MIN_SIZE_CLASS = 6;
+    private static final int MAX_SIZE_CLASS = 24;
+    private static final int MAX_ITEMS_PER_CLASS = 1024;
+    private static final long MAX_BYTES_PER_CLASS = 64L * 1024 * 1024;
+
+    private final ArrayBlockingQueue<T>[] freeItems;
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    protected SizeClassedPool(int bytesPerElement) {
+        freeItems = newQueues(MAX_SIZE_CLASS - MIN_SIZE_CLASS + 1);
+        for (int sizeClass = MIN_SIZE_CLASS; sizeClass <= MAX_SIZE_CLASS; sizeClass++) {
+            long bytes = (long) bytesPerElement << sizeClass;
+            int capacity = (int) Math.max(1, Math.min(MAX_ITEMS_PER_CLASS, MAX_BYTES_PER_CLASS / bytes));
+            freeItems[sizeClass - MIN_SIZE_CLASS] = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    protected abstract T allocate(int capacity);
+
+    protected abstract int capacity(T item);
+
+    protected T acquireItem(int size) {
+        int sizeClass = sizeClass(size);
+        if (sizeClass > MAX_SIZE_CLASS) {
+            misses.incrementAndGet();
+            return allocate(size);
+        }
+        T item = freeItems[sizeClass - MIN_SIZE_CLASS].poll();
+        if (item == null) {
+            misses.incrementAndGet();
+            return allocate(1 << sizeClass);
+        }
+        hits.incrementAndGet();
+        return item;
+    }
+
+    protected void releaseItem(T item) {
+        int capacity = capacity(item);
+        int sizeClass = sizeClass(capacity);
+        if (sizeClass > MAX_SIZE_CLASS || capacity != 1 << sizeClass) {
+            return;
+        }
+        freeItems[sizeClass - MIN_SIZE_CLASS].offer(item);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArrayBlockingQueue<T>[] newQueues(int numberOfQueues) {
+        return (ArrayBlockingQueue<T>[]) new ArrayBlockingQueue<?>[numberOfQueues];
+    }
+
+    private static int sizeClass(int size) {
+        if (size <= 1 << MIN_SIZE_CLASS) {
+            return MIN_SIZE_CLASS;
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+    }
+}
@@ -1,10 +1,8 @@
 package ru.hse.server;
 
-import com.google.protobuf.InvalidProtocolBufferException;
 import ru.hse.data.IntArray;
+import ru.hse.statistics.Phase;
 import ru.hse.statistics.Statistics;
-import ru.hse.utils.IntArraysUtils;
-import ru.hse.utils.ProtoUtils;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -15,12 +13,14 @@ import java.nio.channels.CompletionHandler;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class AsynchronousServer extends Server {
     private ExecutorService workersThreadPool;
     private AsynchronousServerSocketChannel serverSocketChannel;
+    private final Queue<ClientData> pausedClients = new ConcurrentLinkedQueue<>();
 
     public AsynchronousServer(Statistics statistics) {
         super(statistics);
@@ -28,16 +28,25 @@ public class AsynchronousServer extends Server {
 
     @Override
     public void start(int port, int numberOfWorkers) throws ServerException {
-        workersThreadPool = Executors.newFixedThreadPool(numberOfWorkers);
+        workersThreadPool = newWorkersThreadPool(numberOfWorkers);
         try {
             serverSocketChannel = AsynchronousServerSocketChannel.open();
-            serverSocketChannel.bind(new InetSocketAddress(port));
+            serverSocketChannel.bind(new InetSocketAddress(port), BACKLOG);
             serverSocketChannel.accept(serverSocketChannel, new AcceptHandler());
         } catch (IOException ex) {
             throw new ServerException(ex);
         }
     }
 
+    @Override
+    public int getPort() throws ServerException {
+        try {
+            return ((InetSocketAddress) serverSocketChannel.getLocalAddress()).getPort();
+        } catch (IOException ex) {
+            throw new ServerException(ex);
+        }
+    }
+
     @Override
     public void shutdown() throws ServerException {
         try {
@@ -55,7 +64,7 @@ public class AsynchronousServer extends Server {
         public void completed(AsynchronousSocketChannel asynchronousSocketChannel, AsynchronousServerSocketChannel serverSocketChannel) {
             serverSocketChannel.accept(serverSocketChannel, this);
             ClientData clientData = new ClientData(asynchronousSocketChannel);
-            asynchronousSocketChannel.read(clientData.messageSizeBuffer, clientData, readHandler);
+            asynchronousSocketChannel.read(clientData.reader.getBuffer(), clientData, readHandler);
         }
 
         @Override
@@ -65,18 +74,30 @@ public class AsynchronousServer extends Server {
     }
 
     private class ReadHandler implements  CompletionHandler<Integer, ClientData> {
-        private final CompletionHandler<Integer, ClientData> outputHandler = new WriteHandler();
+        private final CompletionHandler<Long, ClientData> outputHandler = new WriteHandler();
 
         @Override
         public void completed(Integer integer, ClientData clientData) {
+            onBytesRead(integer);
             if (integer < 0) {
                 clientData.close();
                 return;
             }
-            if (clientData.isReadingSize) {
-                processSize(clientData);
-            } else {
-                processData(clientData);
+            try {
+                ByteBuffer frame = clientData.reader.onRead(byteBufferPool);
+                if (frame != null) {
+                    addTasks(clientData, frame);
+                    if (isOverloaded()) {
+                        pausedClients.add(clientData);
+                        if (!isOverloaded()) {
+                            resumeReading();
+                        }
+                        return;
+                    }
+                }
+                clientData.channel.read(clientData.reader.getBuffer(), clientData, this);
+            } catch (IOException e) {
+                clientData.close();
             }
         }
 
@@ -86,84 +107,51 @@ public class AsynchronousServer extends Server {
             System.out.println("Я упал");
         }
 
-        private void processSize(ClientData clientData) {
-            if (!clientData.messageSizeBuffer.hasRemaining()) {
-                startReadingData(clientData);
-            } else {
-                readSize(clientData);
-            }
-        }
-
-        private void startReadingData(ClientData clientData) {
-            clientData.isReadingSize = false;
-            int size = getDataSize(clientData);
-            clientData.messageBuffer = ByteBuffer.allocate(size);
-            clientData.channel.read(clientData.messageBuffer, clientData, this);
-        }
-
-        private int getDataSize(ClientData clientData) {
-            clientData.messageSizeBuffer.flip();
-            int size = clientData.messageSizeBuffer.getInt();
-            clientData.messageSizeBuffer.clear();
-            return size;
-        }
-
-        private void readSize(ClientData clientData) {
-            clientData.channel.read(clientData.messageSizeBuffer, clientData, this);
-        }
-
-        private void processData(ClientData clientData) {
-            if (!clientData.messageBuffer.hasRemaining()) {
-                addTaskAndStartReadingSize(clientData);
-            } else {
-                readData(clientData);
+        private void resumeReading() {
+            ClientData clientData;
+            while ((clientData = pausedClients.poll()) != null) {
+                clientData.channel.read(clientData.reader.getBuffer(), clientData, this);
             }
         }
 
-        private void addTaskAndStartReadingSize(ClientData clientData) {
-            clientData.isReadingSize = true;
-            ByteBuffer buffer = clientData.messageBuffer;
-            readSize(clientData);
-            addTask(clientData, buffer);
-        }
-
-        private void addTask(ClientData clientData, ByteBuffer dataBuffer) {
-            try {
-                dataBuffer.flip();
-                IntArray array = ProtoUtils.readArray(dataBuffer);
-                final int id = array.getId();
-                startMeasure(id);
+        private void addTasks(ClientData clientData, ByteBuffer frame) throws IOException {
+            long readTime = startMeasure();
+            Request request = Request.decode(clientData.reader, frame, intArrayPool, byteBufferPool);
+            endPhase(Phase.DECODE, readTime);
+            for (IntArray array : request.getArrays()) {
+                final long startTime = startMeasure();
+                onTaskQueued();
                 workersThreadPool.submit(() -> {
-                    IntArraysUtils.sort(array.getData());
-                    clientData.addOutput(ProtoUtils.serialize(array));
-                    if (clientData.numberOfUnfinishedOutputs.incrementAndGet() == 1) {
-                        clientData.channel.write(clientData.getNextOutput(), clientData, outputHandler);
+                    long dequeueTime = endPhase(Phase.QUEUE, startTime);
+                    sort(array);
+                    long sortTime = endPhase(Phase.SORT, dequeueTime);
+                    ByteBuffer response = request.onSorted(array, intArrayPool, byteBufferPool);
+                    if (response != null) {
+                        clientData.outputs.add(response, endPhase(Phase.ENCODE, sortTime));
+                        if (clientData.numberOfUnfinishedOutputs.incrementAndGet() == 1) {
+                            clientData.writeOutputs(outputHandler);
+                        }
+                    }
+                    endMeasure(startTime);
+                    if (onTaskDone()) {
+                        resumeReading();
                     }
-                    endMeasure(id);
                 });
-            } catch (InvalidProtocolBufferException e) {
-                e.printStackTrace();
             }
         }
-
-        private void readData(ClientData clientData) {
-            clientData.channel.read(clientData.messageBuffer, clientData, this);
-        }
     }
 
-    private static class WriteHandler implements CompletionHandler<Integer, ClientData> {
+    private class WriteHandler implements CompletionHandler<Long, ClientData> {
         @Override
-        public void completed(Integer integer, ClientData clientData) {
-            if (integer < 0) {
+        public void completed(Long written, ClientData clientData) {
+            onBytesWritten(written);
+            if (written < 0) {
                 clientData.close();
                 return;
             }
-            if (clientData.getCurrentOutput().hasRemaining()) {
-                clientData.channel.write(clientData.getCurrentOutput(), clientData, this);
-            } else {
-                if (clientData.numberOfUnfinishedOutputs.decrementAndGet() > 0) {
-                    clientData.channel.write(clientData.getNextOutput(), clientData, this);
-                }
+            int numberOfWritten = clientData.outputs.removeWritten(byteBufferPool, onResponseWritten);
+            if (clientData.numberOfUnfinishedOutputs.addAndGet(-numberOfWritten) > 0) {
+                clientData.writeOutputs(this);
             }
         }
 
@@ -174,34 +162,29 @@ public class AsynchronousServer extends Server {
         }
     }
 
-    private static class ClientData {
+    private class ClientData {
+        public final AtomicBoolean isClosed = new AtomicBoolean(false);
         public final AtomicInteger numberOfUnfinishedOutputs = new AtomicInteger(0);
-        public final ByteBuffer messageSizeBuffer = ByteBuffer.allocate(Integer.BYTES);
-        public ByteBuffer messageBuffer;
-        public boolean isReadingSize = true;
+        public final FrameReader reader = new FrameReader();
         public final AsynchronousSocketChannel channel;
 
-        private final Queue<ByteBuffer> outputs = new ConcurrentLinkedQueue<>();
-        private volatile ByteBuffer currentBuffer;
+        public final OutputsBatch outputs = new OutputsBatch();
 
         private ClientData(AsynchronousSocketChannel channel) {
             this.channel = channel;
+            onClientConnected();
         }
 
-        public ByteBuffer getNextOutput() {
-            currentBuffer = outputs.remove();
-            return currentBuffer;
-        }
-
-        public ByteBuffer getCurrentOutput() {
-            return currentBuffer;
-        }
-
-        public void addOutput(ByteBuffer buffer) {
-            outputs.add(buffer);
+        public void writeOutputs(CompletionHandler<Long, ClientData> handler) {
+            outputs.fill();
+            channel.write(outputs.getBuffers(), outputs.getOffset(), outputs.getLength(),
+                    0, TimeUnit.MILLISECONDS, this, handler);
         }
 
         public void close() {
+            if (isClosed.compareAndSet(false, true)) {
+                onClientDisconnected();
+            }
             try {
                 if (channel.isOpen()) {
                     channel.close();
@@ -1,18 +1,23 @@
 package ru.hse.server;
 
 import ru.hse.data.IntArray;
+import ru.hse.statistics.Phase;
 import ru.hse.statistics.Statistics;
-import ru.hse.utils.IntArraysUtils;
-import ru.hse.utils.ProtoUtils;
+import ru.hse.utils.BatchFrameUtils;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BlockingServer extends Server {
     private final ExecutorService clientsAcceptor = Executors.newSingleThreadExecutor();
@@ -28,16 +33,21 @@ public class BlockingServer extends Server {
 
     @Override
     public void start(int port, int numberOfWorkers) throws ServerException {
-        workersThreadPool = Executors.newFixedThreadPool(numberOfWorkers);
+        workersThreadPool = newWorkersThreadPool(numberOfWorkers);
         try {
             isWorking = true;
-            serverSocket = new ServerSocket(port);
+            serverSocket = new ServerSocket(port, BACKLOG);
             clientsAcceptor.submit(() -> acceptClients(serverSocket));
         } catch (IOException ex) {
             throw new ServerException(ex);
         }
     }
 
+    @Override
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
     @Override
     public void shutdown() throws ServerException {
         isWorking = false;
@@ -68,45 +78,78 @@ public class BlockingServer extends Server {
         private final ExecutorService responseWriter = Executors.newSingleThreadExecutor();
         private final ExecutorService requestReader = Executors.newSingleThreadExecutor();
 
+        private final AtomicBoolean isClosed = new AtomicBoolean(false);
         private final InputStream inputStream;
         private final OutputStream outputStream;
+        private WireFormat format;
+        private BatchMode batchMode;
 
         public ClientData(Socket socket) throws IOException {
             this.socket = socket;
-            inputStream = socket.getInputStream();
-            outputStream = socket.getOutputStream();
+            inputStream = countBytesRead(socket.getInputStream());
+            outputStream = countBytesWritten(socket.getOutputStream());
+            onClientConnected();
         }
 
         public void processClient() {
             requestReader.submit(() -> {
                 try (Socket ignored = socket) {
+                    format = WireFormat.readFrom(inputStream);
+                    batchMode = BatchMode.readFrom(inputStream);
                     while (isWorking && socket.isConnected()) {
-                        IntArray array = ProtoUtils.readArray(inputStream);
-                        final int id = array.getId();
-                        startMeasure(id);
-                        workersThreadPool.submit(() -> {
-                            IntArraysUtils.sort(array.getData());
-                            sendResponse(array);
-                            endMeasure(id);
-                        });
+                        List<IntArray> arrays = batchMode.hasBatchedRequests()
+                                ? BatchFrameUtils.readBatch(inputStream, format)
+                                : List.of(format.readArray(inputStream));
+                        AtomicInteger numberOfUnsorted = new AtomicInteger(arrays.size());
+                        for (IntArray array : arrays) {
+                            awaitQueueCapacity();
+                            final long startTime = startMeasure();
+                            onTaskQueued();
+                            workersThreadPool.submit(() -> {
+                                long dequeueTime = endPhase(Phase.QUEUE, startTime);
+                                sort(array);
+                                long sortTime = endPhase(Phase.SORT, dequeueTime);
+                                if (!batchMode.hasBatchedResponses()) {
+                                    sendResponse(array, sortTime);
+                                } else if (numberOfUnsorted.decrementAndGet() == 0) {
+                                    sendResponses(arrays, sortTime);
+                                }
+                                endMeasure(startTime);
+                                onTaskDone();
+                            });
+                        }
                     }
-                } catch (IOException ignored) {
+                } catch (IOException | InterruptedException ignored) {
                 } finally {
                     close();
                 }
             });
         }
 
-        public void sendResponse(IntArray array) {
+        public void sendResponse(IntArray array, long sortTime) {
+            responseWriter.submit(() -> {
+                try {
+                    format.writeArray(outputStream, array);
+                    endPhase(Phase.WRITE, sortTime);
+                } catch (IOException ignored) {
+                }
+            });
+        }
+
+        public void sendResponses(List<IntArray> arrays, long sortTime) {
             responseWriter.submit(() -> {
                 try {
-                    ProtoUtils.writeArray(outputStream, array);
+                    BatchFrameUtils.writeBatch(outputStream, arrays, format);
+                    endPhase(Phase.WRITE, sortTime);
                 } catch (IOException ignored) {
                 }
             });
         }
 
         public void close() {
+            if (isClosed.compareAndSet(false, true)) {
+                onClientDisconnected();
+            }
             if (!responseWriter.isShutdown()) {
                 responseWriter.shutdown();
             }
@@ -0,0 +1,69 @@
+package ru.hse.server;
+
+import ru.hse.pool.ByteBufferPool;
+import ru.hse.utils.BatchFrameUtils;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+class FrameReader {
+    private static final int HANDSHAKE_SIZE = 2;
+
+    private final ByteBuffer headerBuffer = ByteBuffer.allocate(Math.max(WireFormat.MAX_HEADER_SIZE, BatchFrameUtils.HEADER_SIZE));
+    private WireFormat format;
+    private BatchMode batchMode;
+    private ByteBuffer frameBuffer;
+
+    public FrameReader() {
+        headerBuffer.limit(HANDSHAKE_SIZE);
+    }
+
+    public WireFormat getFormat() {
+        return format;
+    }
+
+    public BatchMode getBatchMode() {
+        return batchMode;
+    }
+
+    public ByteBuffer getBuffer() {
+        return frameBuffer != null ? frameBuffer : headerBuffer;
+    }
+
+    public ByteBuffer onRead(ByteBufferPool pool) throws IOException {
+        if (frameBuffer == null) {
+            if (headerBuffer.hasRemaining()) {
+                return null;
+            }
+            headerBuffer.flip();
+            if (format == null) {
+                format = WireFormat.fromCode(headerBuffer.get());
+                batchMode = BatchMode.fromCode(headerBuffer.get());
+                headerBuffer.clear();
+                headerBuffer.limit(getHeaderSize());
+                return null;
+            }
+            frameBuffer = pool.acquire(getFrameSize());
+            frameBuffer.put(headerBuffer);
+            headerBuffer.clear();
+            headerBuffer.limit(getHeaderSize());
+        }
+        if (frameBuffer.hasRemaining()) {
+            return null;
+        }
+        ByteBuffer frame = frameBuffer;
+        frameBuffer = null;
+        frame.flip();
+        return frame;
+    }
+
+    private int getHeaderSize() {
+        return batchMode.hasBatchedRequests() ? BatchFrameUtils.HEADER_SIZE : format.getHeaderSize();
+    }
+
+    private int getFrameSize() throws IOException {
+        return batchMode.hasBatchedRequests() ? BatchFrameUtils.getFrameSize(headerBuffer) : format.getFrameSize(headerBuffer);
+    }
+}
@@ -0,0 +1,299 @@
+package ru.hse.server;
+
+import ru.hse.data.IntArray;
+import ru.hse.statistics.Phase;
+import ru.hse.statistics.Statistics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MultiReactorServer extends Server {
+    private final int numberOfEventLoops;
+    private ExecutorService workersThreadPool;
+    private final ExecutorService clientsAcceptor = Executors.newSingleThreadExecutor();
+    private ExecutorService eventLoopsThreadPool;
+    private EventLoop[] eventLoops;
+    private volatile boolean isWorking;
+
+    private ServerSocketChannel serverSocketChannel;
+
+    public MultiReactorServer(Statistics statistics) {
+        this(statistics, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultiReactorServer(Statistics statistics, int numberOfEventLoops) {
+        super(statistics);
+        if (numberOfEventLoops <= 0) {
+            throw new IllegalArgumentException("Number of event loops must be positive");
+        }
+        this.numberOfEventLoops = numberOfEventLoops;
+    }
+
+    @Override
+    public void start(int port, int numberOfWorkers) throws ServerException {
+        isWorking = true;
+        workersThreadPool = newWorkersThreadPool(numberOfWorkers);
+        eventLoopsThreadPool = Executors.newFixedThreadPool(numberOfEventLoops);
+        eventLoops = new EventLoop[numberOfEventLoops];
+        try {
+            for (int i = 0; i < numberOfEventLoops; i++) {
+                eventLoops[i] = new EventLoop(Selector.open());
+            }
+            serverSocketChannel = ServerSocketChannel.open();
+            serverSocketChannel.bind(new InetSocketAddress(port), BACKLOG);
+            for (EventLoop eventLoop : eventLoops) {
+                eventLoopsThreadPool.submit(() -> {
+                    try {
+                        eventLoop.run();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                });
+            }
+            clientsAcceptor.submit(() -> acceptClients(serverSocketChannel));
+        } catch (IOException ex) {
+            throw new ServerException(ex);
+        }
+    }
+
+    @Override
+    public int getPort() throws ServerException {
+        try {
+            return ((InetSocketAddress) serverSocketChannel.getLocalAddress()).getPort();
+        } catch (IOException ex) {
+            throw new ServerException(ex);
+        }
+    }
+
+    @Override
+    public void shutdown() throws ServerException {
+        isWorking = false;
+        workersThreadPool.shutdown();
+        clientsAcceptor.shutdown();
+        eventLoopsThreadPool.shutdown();
+        try {
+            serverSocketChannel.close();
+            for (EventLoop eventLoop : eventLoops) {
+                eventLoop.selector.close();
+            }
+        } catch (IOException ex) {
+            throw new ServerException(ex);
+        }
+    }
+
+    private void acceptClients(ServerSocketChannel serverSocket) {
+        int next = 0;
+        try (ServerSocketChannel ignored = serverSocket) {
+            while (isWorking) {
+                SocketChannel socketChannel = serverSocket.accept();
+                socketChannel.configureBlocking(false);
+                EventLoop eventLoop = eventLoops[next];
+                next = (next + 1) % eventLoops.length;
+                eventLoop.addClient(new ClientData(socketChannel, eventLoop));
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private class EventLoop {
+        private final Selector selector;
+        private final Queue<ClientData> newClients = new ConcurrentLinkedQueue<>();
+        private final Queue<ClientData> clientsWithOutputs = new ConcurrentLinkedQueue<>();
+        private final List<SelectionKey> pausedKeys = new ArrayList<>();
+        private final AtomicBoolean needResumeReading = new AtomicBoolean(false);
+
+        private EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        public void addClient(ClientData clientData) {
+            newClients.add(clientData);
+            selector.wakeup();
+        }
+
+        public void addClientWithOutputs(ClientData clientData) {
+            clientsWithOutputs.add(clientData);
+            selector.wakeup();
+        }
+
+        public void resumeReading() {
+            needResumeReading.set(true);
+            selector.wakeup();
+        }
+
+        public void run() throws IOException {
+            while (isWorking) {
+                int n = selector.select();
+                registerNewClients();
+                enableWriting();
+                enableReading();
+                if (n > 0) {
+                    processSelectedKeys();
+                }
+            }
+        }
+
+        private void registerNewClients() throws ClosedChannelException {
+            while (!newClients.isEmpty()) {
+                ClientData clientData = newClients.remove();
+                clientData.key = clientData.channel.register(selector, SelectionKey.OP_READ, clientData);
+            }
+        }
+
+        private void enableWriting() {
+            while (!clientsWithOutputs.isEmpty()) {
+                ClientData clientData = clientsWithOutputs.remove();
+                if (clientData.key.isValid()) {
+                    clientData.key.interestOps(clientData.key.interestOps() | SelectionKey.OP_WRITE);
+                }
+            }
+        }
+
+        private void enableReading() {
+            if (!needResumeReading.getAndSet(false)) {
+                return;
+            }
+            for (SelectionKey key : pausedKeys) {
+                if (key.isValid()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+                }
+            }
+            pausedKeys.clear();
+        }
+
+        private void processSelectedKeys() throws IOException {
+            Set<SelectionKey> readySet = selector.selectedKeys();
+            Iterator<SelectionKey> iterator = readySet.iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                ClientData clientData = (ClientData) key.attachment();
+                if (key.isValid() && key.isReadable()) {
+                    readData(key, clientData);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    writeData(key, clientData);
+                }
+            }
+        }
+
+        private void readData(SelectionKey key, ClientData clientData) {
+            try {
+                int len = clientData.channel.read(clientData.reader.getBuffer());
+                onBytesRead(len);
+                ByteBuffer frame = clientData.reader.onRead(byteBufferPool);
+                if (frame != null) {
+                    long readTime = startMeasure();
+                    Request request = Request.decode(clientData.reader, frame, intArrayPool, byteBufferPool);
+                    endPhase(Phase.DECODE, readTime);
+                    for (IntArray array : request.getArrays()) {
+                        workersThreadPool.submit(new Task(array, request, clientData));
+                    }
+                    if (isOverloaded()) {
+                        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                        pausedKeys.add(key);
+                    }
+                }
+                if (len < 0) {
+                    clientData.close();
+                    key.cancel();
+                }
+            } catch (IOException e) {
+                clientData.close();
+                key.cancel();
+            }
+        }
+
+        private void writeData(SelectionKey key, ClientData clientData) throws IOException {
+            OutputsBatch outputs = clientData.outputs;
+            outputs.fill();
+            long written = clientData.channel.write(outputs.getBuffers(), outputs.getOffset(), outputs.getLength());
+            onBytesWritten(written);
+            if (written < 0) {
+                clientData.close();
+                key.cancel();
+                return;
+            }
+            int numberOfWritten = outputs.removeWritten(byteBufferPool, onResponseWritten);
+            if (numberOfWritten > 0 && clientData.numberOfUnfinishedOutputs.addAndGet(-numberOfWritten) <= 0) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private class Task implements Runnable {
+        private final IntArray array;
+        private final Request request;
+        private final ClientData clientData;
+        private final long startTime;
+
+        public Task(IntArray array, Request request, ClientData clientData) {
+            this.array = array;
+            this.request = request;
+            this.clientData = clientData;
+            this.startTime = startMeasure();
+            onTaskQueued();
+        }
+
+        @Override
+        public void run() {
+            long dequeueTime = endPhase(Phase.QUEUE, startTime);
+            sort(array);
+            long sortTime = endPhase(Phase.SORT, dequeueTime);
+            ByteBuffer response = request.onSorted(array, intArrayPool, byteBufferPool);
+            if (response != null) {
+                clientData.outputs.add(response, endPhase(Phase.ENCODE, sortTime));
+                if (clientData.numberOfUnfinishedOutputs.incrementAndGet() == 1) {
+                    clientData.eventLoop.addClientWithOutputs(clientData);
+                }
+            }
+            endMeasure(startTime);
+            if (onTaskDone()) {
+                for (EventLoop eventLoop : eventLoops) {
+                    eventLoop.resumeReading();
+                }
+            }
+        }
+    }
+
+    private class ClientData {
+        public final AtomicBoolean isClosed = new AtomicBoolean(false);
+        public final AtomicInteger numberOfUnfinishedOutputs = new AtomicInteger(0);
+        public final FrameReader reader = new FrameReader();
+        public final SocketChannel channel;
+        public final EventLoop eventLoop;
+        public final OutputsBatch outputs = new OutputsBatch();
+        public SelectionKey key;
+
+        private ClientData(SocketChannel channel, EventLoop eventLoop) {
+            this.channel = channel;
+            this.eventLoop = eventLoop;
+            onClientConnected();
+        }
+
+        public void close() {
+            if (isClosed.compareAndSet(false, true)) {
+                onClientDisconnected();
+            }
+            try {
+                if (channel.isOpen()) {
+                    channel.close();
+                }
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+}
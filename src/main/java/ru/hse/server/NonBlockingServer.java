@@ -1,21 +1,22 @@
 package ru.hse.server;
 
-import com.google.protobuf.InvalidProtocolBufferException;
 import ru.hse.data.IntArray;
+import ru.hse.statistics.Phase;
 import ru.hse.statistics.Statistics;
-import ru.hse.utils.IntArraysUtils;
-import ru.hse.utils.ProtoUtils;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class NonBlockingServer extends Server {
@@ -26,6 +27,8 @@ public class NonBlockingServer extends Server {
     private Selector readSelector;
     private final ExecutorService requestReader = Executors.newSingleThreadExecutor();
     private final Queue<ClientData> readQueue = new ConcurrentLinkedQueue<>();
+    private final List<SelectionKey> pausedKeys = new ArrayList<>();
+    private final AtomicBoolean needResumeReading = new AtomicBoolean(false);
 
     private Selector writeSelector;
     private final ExecutorService responseWriter = Executors.newSingleThreadExecutor();
@@ -40,12 +43,12 @@ public class NonBlockingServer extends Server {
     @Override
     public void start(int port, int numberOfWorkers) throws ServerException {
         isWorking = true;
-        workersThreadPool = Executors.newFixedThreadPool(numberOfWorkers);
+        workersThreadPool = newWorkersThreadPool(numberOfWorkers);
         try {
             writeSelector = Selector.open();
             readSelector = Selector.open();
             serverSocketChannel = ServerSocketChannel.open();
-            serverSocketChannel.bind(new InetSocketAddress(port));
+            serverSocketChannel.bind(new InetSocketAddress(port), BACKLOG);
             clientsAcceptor.submit(() -> acceptClients(serverSocketChannel));
             requestReader.submit(() -> {
                 try {
@@ -66,6 +69,15 @@ public class NonBlockingServer extends Server {
         }
     }
 
+    @Override
+    public int getPort() throws ServerException {
+        try {
+            return ((InetSocketAddress) serverSocketChannel.getLocalAddress()).getPort();
+        } catch (IOException ex) {
+            throw new ServerException(ex);
+        }
+    }
+
     @Override
     public void shutdown() throws ServerException {
         isWorking = false;
@@ -99,6 +111,7 @@ public class NonBlockingServer extends Server {
         while (isWorking) {
             int n = readSelector.select();
             addNewClientsToReadSelector();
+            resumeReading();
             if (n > 0) {
                 readDataFromClients();
             }
@@ -112,33 +125,45 @@ public class NonBlockingServer extends Server {
         }
     }
 
+    private void resumeReading() {
+        if (!needResumeReading.getAndSet(false)) {
+            return;
+        }
+        for (SelectionKey key : pausedKeys) {
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+        pausedKeys.clear();
+    }
+
     private void readDataFromClients() throws IOException {
         Set<SelectionKey> readySet = readSelector.selectedKeys();
         Iterator<SelectionKey> iterator = readySet.iterator();
         while (iterator.hasNext()) {
             SelectionKey key = iterator.next();
             ClientData clientData = (ClientData) key.attachment();
-            SocketChannel channel = clientData.channel;
-            int len;
-            if (clientData.isReadingSize) {
-                len = channel.read(clientData.messageSizeBuffer);
-                if (!clientData.messageSizeBuffer.hasRemaining()) {
-                    clientData.isReadingSize = false;
-                    clientData.messageSizeBuffer.flip();
-                    int size = clientData.messageSizeBuffer.getInt();
-                    clientData.messageSizeBuffer.clear();
-                    clientData.messageBuffer = ByteBuffer.allocate(size);
+            try {
+                int len = clientData.channel.read(clientData.reader.getBuffer());
+                onBytesRead(len);
+                ByteBuffer frame = clientData.reader.onRead(byteBufferPool);
+                if (frame != null) {
+                    long readTime = startMeasure();
+                    Request request = Request.decode(clientData.reader, frame, intArrayPool, byteBufferPool);
+                    endPhase(Phase.DECODE, readTime);
+                    for (IntArray array : request.getArrays()) {
+                        workersThreadPool.submit(new Task(array, request, clientData));
+                    }
+                    if (isOverloaded()) {
+                        key.interestOps(0);
+                        pausedKeys.add(key);
+                    }
                 }
-            } else {
-                len = channel.read(clientData.messageBuffer);
-                if (!clientData.messageBuffer.hasRemaining()) {
-                    clientData.messageBuffer.flip();
-                    workersThreadPool.submit(new Task(clientData.messageBuffer, clientData));
-                    clientData.isReadingSize = true;
-                    clientData.messageBuffer = null;
+                if (len < 0) {
+                    clientData.close();
+                    key.cancel();
                 }
-            }
-            if (len < 0) {
+            } catch (IOException e) {
                 clientData.close();
                 key.cancel();
             }
@@ -171,75 +196,91 @@ public class NonBlockingServer extends Server {
             ClientData clientData = (ClientData) key.attachment();
             SocketChannel channel = clientData.channel;
 
-            ByteBuffer buffer = clientData.getCurrentOutput();
-            if (channel.write(buffer) < 0) {
+            OutputsBatch outputs = clientData.outputs;
+            outputs.fill();
+            long written = channel.write(outputs.getBuffers(), outputs.getOffset(), outputs.getLength());
+            onBytesWritten(written);
+            if (written < 0) {
                 clientData.close();
                 key.cancel();
             }
-            if (!buffer.hasRemaining()) {
-                clientData.currentBuffer = null;
-                if (clientData.numberOfUnfinishedOutputs.decrementAndGet() == 0) {
-                    key.cancel();
-                }
+            int numberOfWritten = outputs.removeWritten(byteBufferPool, onResponseWritten);
+            if (numberOfWritten > 0 && clientData.numberOfUnfinishedOutputs.addAndGet(-numberOfWritten) <= 0) {
+                key.cancel();
             }
             iterator.remove();
         }
     }
 
+    private void writeDirectly(ClientData clientData) {
+        OutputsBatch outputs = clientData.outputs;
+        try {
+            do {
+                outputs.fill();
+                onBytesWritten(clientData.channel.write(outputs.getBuffers(), outputs.getOffset(), outputs.getLength()));
+                int numberOfWritten = outputs.removeWritten(byteBufferPool, onResponseWritten);
+                if (clientData.numberOfUnfinishedOutputs.addAndGet(-numberOfWritten) <= 0) {
+                    return;
+                }
+            } while (outputs.getLength() == 0);
+        } catch (IOException e) {
+            clientData.close();
+            return;
+        }
+        writeQueue.add(clientData);
+        writeSelector.wakeup();
+    }
+
     private class Task implements Runnable {
         private final IntArray array;
+        private final Request request;
         private final ClientData clientData;
+        private final long startTime;
 
-        public Task(ByteBuffer buffer, ClientData clientData) throws InvalidProtocolBufferException {
-            this.array = ProtoUtils.readArray(buffer);
+        public Task(IntArray array, Request request, ClientData clientData) {
+            this.array = array;
+            this.request = request;
             this.clientData = clientData;
-            startMeasure(array.getId());
+            this.startTime = startMeasure();
+            onTaskQueued();
         }
 
         @Override
         public void run() {
-            IntArraysUtils.sort(array.getData());
-            clientData.addOutput(ProtoUtils.serialize(array));
-            if (clientData.numberOfUnfinishedOutputs.incrementAndGet() == 1) {
-                writeQueue.add(clientData);
-                writeSelector.wakeup();
+            long dequeueTime = endPhase(Phase.QUEUE, startTime);
+            sort(array);
+            long sortTime = endPhase(Phase.SORT, dequeueTime);
+            ByteBuffer response = request.onSorted(array, intArrayPool, byteBufferPool);
+            if (response != null) {
+                clientData.outputs.add(response, endPhase(Phase.ENCODE, sortTime));
+                if (clientData.numberOfUnfinishedOutputs.incrementAndGet() == 1) {
+                    writeDirectly(clientData);
+                }
+            }
+            endMeasure(startTime);
+            if (onTaskDone()) {
+                needResumeReading.set(true);
+                readSelector.wakeup();
             }
-            endMeasure(array.getId());
         }
     }
 
-    private static class ClientData {
+    private class ClientData {
+        public final AtomicBoolean isClosed = new AtomicBoolean(false);
         public final AtomicInteger numberOfUnfinishedOutputs = new AtomicInteger(0);
-        public final ByteBuffer messageSizeBuffer = ByteBuffer.allocate(Integer.BYTES);
-        public ByteBuffer messageBuffer;
-        public boolean isReadingSize = true;
+        public final FrameReader reader = new FrameReader();
         public final SocketChannel channel;
-
-        private final Queue<ByteBuffer> outputs = new ConcurrentLinkedQueue<>();
-        private volatile ByteBuffer currentBuffer;
-
+        public final OutputsBatch outputs = new OutputsBatch();
 
         private ClientData(SocketChannel channel) {
             this.channel = channel;
-        }
-
-        public ByteBuffer getNextOutput() {
-            currentBuffer = outputs.remove();
-            return currentBuffer;
-        }
-
-        public ByteBuffer getCurrentOutput() {
-            if (currentBuffer != null) {
-                return currentBuffer;
-            }
-            return getNextOutput();
-        }
-
-        public void addOutput(ByteBuffer buffer) {
-            outputs.add(buffer);
+            onClientConnected();
         }
 
         public void close() {
+            if (isClosed.compareAndSet(false, true)) {
+                onClientDisconnected();
+            }
             try {
                 if (channel.isOpen()) {
                     channel.close();
@@ -0,0 +1,81 @@
+package ru.hse.server;
+
+import ru.hse.pool.ByteBufferPool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongConsumer;
+
+class OutputsBatch {
+    private static final int MAX_NUMBER_OF_BUFFERS = 64;
+    private static final int MAX_NUMBER_OF_BYTES = 256 * 1024;
+
+    private final Queue<Output> outputs = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer[] buffers = new ByteBuffer[MAX_NUMBER_OF_BUFFERS];
+    private final long[] encodeTimes = new long[MAX_NUMBER_OF_BUFFERS];
+    private int offset;
+    private int length;
+
+    public void add(ByteBuffer buffer, long encodeTime) {
+        outputs.add(new Output(buffer, encodeTime));
+    }
+
+    public ByteBuffer[] getBuffers() {
+        return buffers;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length - offset;
+    }
+
+    public void fill() {
+        int previousLength = length;
+        System.arraycopy(buffers, offset, buffers, 0, length - offset);
+        System.arraycopy(encodeTimes, offset, encodeTimes, 0, length - offset);
+        length -= offset;
+        offset = 0;
+        Arrays.fill(buffers, length, previousLength, null);
+        long bytes = 0;
+        for (int i = 0; i < length; i++) {
+            bytes += buffers[i].remaining();
+        }
+        while (length < MAX_NUMBER_OF_BUFFERS && (length == 0 || bytes < MAX_NUMBER_OF_BYTES)) {
+            Output output = outputs.poll();
+            if (output == null) {
+                break;
+            }
+            buffers[length] = output.buffer;
+            encodeTimes[length] = output.encodeTime;
+            length++;
+            bytes += output.buffer.remaining();
+        }
+    }
+
+    public int removeWritten(ByteBufferPool pool, LongConsumer onWritten) {
+        int numberOfWritten = 0;
+        while (offset < length && !buffers[offset].hasRemaining()) {
+            onWritten.accept(encodeTimes[offset]);
+            pool.release(buffers[offset]);
+            buffers[offset] = null;
+            offset++;
+            numberOfWritten++;
+        }
+        return numberOfWritten;
+    }
+
+    private static class Output {
+        private final ByteBuffer buffer;
+        private final long encodeTime;
+
+        private Output(ByteBuffer buffer, long encodeTime) {
+            this.buffer = buffer;
+            this.encodeTime = encodeTime;
+        }
+    }
+}
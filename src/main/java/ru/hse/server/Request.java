@@ -0,0 +1,59 @@
+package ru.hse.server;
+
+import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+import ru.hse.pool.IntArrayPool;
+import ru.hse.utils.BatchFrameUtils;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class Request {
+    private final WireFormat format;
+    private final BatchMode batchMode;
+    private final ByteBuffer frame;
+    private final List<IntArray> arrays;
+    private final AtomicInteger numberOfUnsorted;
+
+    private Request(WireFormat format, BatchMode batchMode, ByteBuffer frame, List<IntArray> arrays) {
+        this.format = format;
+        this.batchMode = batchMode;
+        this.frame = frame;
+        this.arrays = arrays;
+        this.numberOfUnsorted = new AtomicInteger(arrays.size());
+    }
+
+    public static Request decode(FrameReader reader, ByteBuffer frame,
+                                 IntArrayPool arrayPool, ByteBufferPool bufferPool) throws IOException {
+        WireFormat format = reader.getFormat();
+        BatchMode batchMode = reader.getBatchMode();
+        if (!batchMode.hasBatchedRequests()) {
+            return new Request(format, batchMode, frame, List.of(format.decode(frame, arrayPool, bufferPool)));
+        }
+        List<IntArray> arrays = BatchFrameUtils.read(frame, format, arrayPool::acquire);
+        bufferPool.release(frame);
+        return new Request(format, batchMode, null, arrays);
+    }
+
+    public List<IntArray> getArrays() {
+        return arrays;
+    }
+
+    public ByteBuffer onSorted(IntArray array, IntArrayPool arrayPool, ByteBufferPool bufferPool) {
+        if (batchMode.hasBatchedResponses()) {
+            if (numberOfUnsorted.decrementAndGet() > 0) {
+                return null;
+            }
+            ByteBuffer response = BatchFrameUtils.serialize(arrays, format, bufferPool);
+            arrays.forEach(sorted -> arrayPool.release(sorted.getData()));
+            return response;
+        }
+        ByteBuffer response = frame != null ? format.encode(array, frame, bufferPool) : format.encode(array, bufferPool);
+        arrayPool.release(array.getData());
+        return response;
+    }
+}
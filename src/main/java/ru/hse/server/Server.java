@@ -1,27 +1,243 @@
 package ru.hse.server;
 
+import ru.hse.cache.ArrayKey;
+import ru.hse.cache.ResultCache;
+import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+import ru.hse.pool.IntArrayPool;
+import ru.hse.sort.BubbleSort;
+import ru.hse.sort.SortAlgorithm;
+import ru.hse.statistics.Phase;
 import ru.hse.statistics.Statistics;
+import ru.hse.utils.ParallelSortTask;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
 
 public abstract class Server {
+    protected static final int BACKLOG = 4096;
+
     private final Statistics statistics;
-    private final Map<Integer, Long> measurements = new ConcurrentHashMap<>();
+    protected final ByteBufferPool byteBufferPool = new ByteBufferPool();
+    protected final IntArrayPool intArrayPool = new IntArrayPool();
+    private SortAlgorithm sortAlgorithm = new BubbleSort();
+    private int parallelSortThreshold;
+    private ResultCache resultCache;
+    private int maxQueuedTasks;
+    private final AtomicInteger numberOfQueuedTasks = new AtomicInteger(0);
+    private final AtomicInteger numberOfConnections = new AtomicInteger(0);
+    private final AtomicLong numberOfProcessedRequests = new AtomicLong(0);
+    private final AtomicLong numberOfBytesRead = new AtomicLong(0);
+    private final AtomicLong numberOfBytesWritten = new AtomicLong(0);
+    private final Lock queueLock = new ReentrantLock();
+    private final Condition queueDrained = queueLock.newCondition();
+    protected final LongConsumer onResponseWritten = encodeTime -> endPhase(Phase.WRITE, encodeTime);
 
     protected Server(Statistics statistics) {
         this.statistics = statistics;
     }
 
-    protected void startMeasure(int id) {
-        measurements.put(id, System.currentTimeMillis());
+    protected long startMeasure() {
+        return System.nanoTime();
+    }
+
+    protected void endMeasure(long startTime) {
+        statistics.addMeasurementServer(System.nanoTime() - startTime);
+        numberOfProcessedRequests.incrementAndGet();
+    }
+
+    protected long endPhase(Phase phase, long startTime) {
+        long endTime = System.nanoTime();
+        statistics.addPhaseMeasurement(phase, endTime - startTime);
+        return endTime;
+    }
+
+    protected void onTaskQueued() {
+        numberOfQueuedTasks.incrementAndGet();
+    }
+
+    protected boolean onTaskDone() {
+        int numberOfTasks = numberOfQueuedTasks.decrementAndGet();
+        if (maxQueuedTasks <= 0 || numberOfTasks != maxQueuedTasks / 2) {
+            return false;
+        }
+        queueLock.lock();
+        try {
+            queueDrained.signalAll();
+        } finally {
+            queueLock.unlock();
+        }
+        return true;
+    }
+
+    protected void onClientConnected() {
+        numberOfConnections.incrementAndGet();
+    }
+
+    protected void onClientDisconnected() {
+        numberOfConnections.decrementAndGet();
+    }
+
+    protected void onBytesRead(long numberOfBytes) {
+        if (numberOfBytes > 0) {
+            numberOfBytesRead.addAndGet(numberOfBytes);
+        }
+    }
+
+    protected void onBytesWritten(long numberOfBytes) {
+        if (numberOfBytes > 0) {
+            numberOfBytesWritten.addAndGet(numberOfBytes);
+        }
+    }
+
+    protected InputStream countBytesRead(InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            @Override
+            public int read() throws IOException {
+                int value = super.read();
+                if (value >= 0) {
+                    onBytesRead(1);
+                }
+                return value;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int numberOfBytes = super.read(bytes, offset, length);
+                onBytesRead(numberOfBytes);
+                return numberOfBytes;
+            }
+        };
+    }
+
+    protected OutputStream countBytesWritten(OutputStream outputStream) {
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(int value) throws IOException {
+                out.write(value);
+                onBytesWritten(1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+                onBytesWritten(length);
+            }
+        };
+    }
+
+    protected boolean isOverloaded() {
+        return maxQueuedTasks > 0 && numberOfQueuedTasks.get() >= maxQueuedTasks;
+    }
+
+    protected void awaitQueueCapacity() throws InterruptedException {
+        if (!isOverloaded()) {
+            return;
+        }
+        queueLock.lock();
+        try {
+            while (isOverloaded()) {
+                queueDrained.await();
+            }
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    protected ExecutorService newWorkersThreadPool(int numberOfWorkers) {
+        if (parallelSortThreshold > 0) {
+            return new ForkJoinPool(numberOfWorkers);
+        }
+        return Executors.newFixedThreadPool(numberOfWorkers);
+    }
+
+    protected void sort(IntArray array) {
+        if (resultCache == null) {
+            sortArray(array);
+            return;
+        }
+        ArrayKey key = ArrayKey.of(array);
+        if (resultCache.load(key, array)) {
+            return;
+        }
+        int[] original = intArrayPool.acquire(array.getSize());
+        System.arraycopy(array.getData(), 0, original, 0, array.getSize());
+        sortArray(array);
+        resultCache.store(key, original, array);
+        intArrayPool.release(original);
+    }
+
+    private void sortArray(IntArray array) {
+        if (parallelSortThreshold <= 0 || array.getSize() <= parallelSortThreshold) {
+            sortAlgorithm.sort(array.getData(), array.getSize());
+            return;
+        }
+        int[] buffer = intArrayPool.acquire(array.getSize());
+        new ParallelSortTask(sortAlgorithm, array.getData(), buffer, 0, array.getSize(), parallelSortThreshold).invoke();
+        intArrayPool.release(buffer);
+    }
+
+    public void setSortAlgorithm(SortAlgorithm sortAlgorithm) {
+        this.sortAlgorithm = sortAlgorithm;
+    }
+
+    public void setParallelSortThreshold(int parallelSortThreshold) {
+        this.parallelSortThreshold = parallelSortThreshold;
+    }
+
+    public void setMaxQueuedTasks(int maxQueuedTasks) {
+        this.maxQueuedTasks = maxQueuedTasks;
+    }
+
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public ByteBufferPool getByteBufferPool() {
+        return byteBufferPool;
+    }
+
+    public IntArrayPool getIntArrayPool() {
+        return intArrayPool;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    public int getNumberOfQueuedTasks() {
+        return numberOfQueuedTasks.get();
+    }
+
+    public int getNumberOfConnections() {
+        return numberOfConnections.get();
+    }
+
+    public long getNumberOfProcessedRequests() {
+        return numberOfProcessedRequests.get();
+    }
+
+    public long getNumberOfBytesRead() {
+        return numberOfBytesRead.get();
     }
 
-    protected void endMeasure(int id) {
-        long startTime = measurements.get(id);
-        statistics.addMeasurementServer(System.currentTimeMillis() - startTime);
+    public long getNumberOfBytesWritten() {
+        return numberOfBytesWritten.get();
     }
 
     public abstract void start(int port, int numberOfWorkers) throws ServerException;
+    public abstract int getPort() throws ServerException;
     public abstract void shutdown() throws ServerException;
 }
@@ -0,0 +1,174 @@
+package ru.hse.server;
+
+import ru.hse.data.IntArray;
+import ru.hse.statistics.Phase;
+import ru.hse.statistics.Statistics;
+import ru.hse.utils.BatchFrameUtils;
+import ru.hse.utils.BatchMode;
+import ru.hse.utils.WireFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VirtualThreadServer extends Server {
+    private final ExecutorService clientsThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentLinkedQueue<ClientData> clients = new ConcurrentLinkedQueue<>();
+    private ExecutorService workersThreadPool;
+    private ServerSocket serverSocket;
+
+    private volatile boolean isWorking;
+
+    public VirtualThreadServer(Statistics statistics) {
+        super(statistics);
+    }
+
+    @Override
+    public void start(int port, int numberOfWorkers) throws ServerException {
+        workersThreadPool = newWorkersThreadPool(numberOfWorkers);
+        try {
+            isWorking = true;
+            serverSocket = new ServerSocket(port, BACKLOG);
+            clientsThreads.submit(() -> acceptClients(serverSocket));
+        } catch (IOException ex) {
+            throw new ServerException(ex);
+        }
+    }
+
+    @Override
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void shutdown() throws ServerException {
+        isWorking = false;
+        workersThreadPool.shutdown();
+        clients.forEach(ClientData::close);
+        try {
+            serverSocket.close();
+        } catch (IOException ex) {
+            throw new ServerException(ex);
+        }
+        clientsThreads.shutdown();
+    }
+
+    private void acceptClients(ServerSocket serverSocket) {
+        try (ServerSocket ignored = serverSocket) {
+            while (isWorking) {
+                Socket socket = serverSocket.accept();
+                ClientData clientData = new ClientData(socket);
+                clients.add(clientData);
+                clientData.processClient();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private class ClientData {
+        private final Socket socket;
+        private final BlockingQueue<Response> responses = new LinkedBlockingQueue<>();
+        private volatile Future<?> responseWriter;
+
+        private final AtomicBoolean isClosed = new AtomicBoolean(false);
+        private final InputStream inputStream;
+        private final OutputStream outputStream;
+
+        public ClientData(Socket socket) throws IOException {
+            this.socket = socket;
+            inputStream = countBytesRead(socket.getInputStream());
+            outputStream = countBytesWritten(socket.getOutputStream());
+            onClientConnected();
+        }
+
+        public void processClient() {
+            clientsThreads.submit(this::readRequests);
+        }
+
+        private void readRequests() {
+            try (Socket ignored = socket) {
+                WireFormat format = WireFormat.readFrom(inputStream);
+                BatchMode batchMode = BatchMode.readFrom(inputStream);
+                responseWriter = clientsThreads.submit(() -> writeResponses(format, batchMode));
+                while (isWorking && socket.isConnected()) {
+                    List<IntArray> arrays = batchMode.hasBatchedRequests()
+                            ? BatchFrameUtils.readBatch(inputStream, format)
+                            : List.of(format.readArray(inputStream));
+                    AtomicInteger numberOfUnsorted = new AtomicInteger(arrays.size());
+                    for (IntArray array : arrays) {
+                        awaitQueueCapacity();
+                        final long startTime = startMeasure();
+                        onTaskQueued();
+                        workersThreadPool.submit(() -> {
+                            long dequeueTime = endPhase(Phase.QUEUE, startTime);
+                            sort(array);
+                            long sortTime = endPhase(Phase.SORT, dequeueTime);
+                            if (!batchMode.hasBatchedResponses()) {
+                                responses.add(new Response(List.of(array), sortTime));
+                            } else if (numberOfUnsorted.decrementAndGet() == 0) {
+                                responses.add(new Response(arrays, sortTime));
+                            }
+                            endMeasure(startTime);
+                            onTaskDone();
+                        });
+                    }
+                }
+            } catch (IOException | InterruptedException ignored) {
+            } finally {
+                close();
+            }
+        }
+
+        private void writeResponses(WireFormat format, BatchMode batchMode) {
+            try {
+                while (isWorking) {
+                    Response response = responses.take();
+                    if (batchMode.hasBatchedResponses()) {
+                        BatchFrameUtils.writeBatch(outputStream, response.arrays, format);
+                    } else {
+                        format.writeArray(outputStream, response.arrays.get(0));
+                    }
+                    endPhase(Phase.WRITE, response.sortTime);
+                }
+            } catch (IOException | InterruptedException ignored) {
+            }
+        }
+
+        public void close() {
+            if (isClosed.compareAndSet(false, true)) {
+                onClientDisconnected();
+            }
+            if (responseWriter != null) {
+                responseWriter.cancel(true);
+            }
+            clients.remove(this);
+            try {
+                if (!socket.isClosed()) {
+                    socket.close();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static class Response {
+        private final List<IntArray> arrays;
+        private final long sortTime;
+
+        private Response(List<IntArray> arrays, long sortTime) {
+            this.arrays = arrays;
+            this.sortTime = sortTime;
+        }
+    }
+}
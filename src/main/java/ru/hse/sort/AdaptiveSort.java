@@ -0,0 +1,56 @@
+package ru.hse.sort;
+
+public class AdaptiveSort implements SortAlgorithm {
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final int RADIX_SORT_THRESHOLD = 4096;
+    private static final int NEARLY_SORTED_DESCENTS_RATIO = 64;
+
+    private final SortAlgorithm insertionSort = new InsertionSort();
+    private final SortAlgorithm quickSort = new DualPivotQuickSort();
+    private final SortAlgorithm radixSort = new RadixSort();
+
+    @Override
+    public void sort(int[] data, int from, int to) {
+        int size = to - from;
+        if (size <= INSERTION_SORT_THRESHOLD) {
+            insertionSort.sort(data, from, to);
+            return;
+        }
+        int descents = countDescents(data, from, to);
+        if (descents == 0) {
+            return;
+        }
+        if (descents == size - 1) {
+            reverse(data, from, to);
+            return;
+        }
+        if (size >= RADIX_SORT_THRESHOLD && descents > size / NEARLY_SORTED_DESCENTS_RATIO) {
+            radixSort.sort(data, from, to);
+        } else {
+            quickSort.sort(data, from, to);
+        }
+    }
+
+    private static int countDescents(int[] data, int from, int to) {
+        int descents = 0;
+        for (int i = from; i < to - 1; i++) {
+            if (data[i] > data[i + 1]) {
+                descents++;
+            }
+        }
+        return descents;
+    }
+
+    private static void reverse(int[] data, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int t = data[i];
+            data[i] = data[j];
+            data[j] = t;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Adaptive";
+    }
+}
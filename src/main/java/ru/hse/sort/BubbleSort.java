@@ -0,0 +1,15 @@
+package ru.hse.sort;
+
+import ru.hse.utils.IntArraysUtils;
+
+public class BubbleSort implements SortAlgorithm {
+    @Override
+    public void sort(int[] data, int from, int to) {
+        IntArraysUtils.sort(data, from, to);
+    }
+
+    @Override
+    public String toString() {
+        return "Bubble";
+    }
+}
@@ -0,0 +1,15 @@
+package ru.hse.sort;
+
+import java.util.Arrays;
+
+public class DualPivotQuickSort implements SortAlgorithm {
+    @Override
+    public void sort(int[] data, int from, int to) {
+        Arrays.sort(data, from, to);
+    }
+
+    @Override
+    public String toString() {
+        return "DualPivotQuick";
+    }
+}
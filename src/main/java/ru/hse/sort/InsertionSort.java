@@ -0,0 +1,21 @@
+package ru.hse.sort;
+
+public class InsertionSort implements SortAlgorithm {
+    @Override
+    public void sort(int[] data, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int value = data[i];
+            int j = i - 1;
+            while (j >= from && data[j] > value) {
+                data[j + 1] = data[j];
+                j--;
+            }
+            data[j + 1] = value;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Insertion";
+    }
+}
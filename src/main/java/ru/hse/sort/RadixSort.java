@@ -0,0 +1,54 @@
+package ru.hse.sort;
+
+import java.util.Arrays;
+
+public class RadixSort implements SortAlgorithm {
+    private static final int BITS_PER_PASS = 8;
+    private static final int NUMBER_OF_BUCKETS = 1 << BITS_PER_PASS;
+    private static final int MASK = NUMBER_OF_BUCKETS - 1;
+
+    private final ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[0]);
+
+    @Override
+    public void sort(int[] data, int from, int to) {
+        int size = to - from;
+        int[] buffer = buffers.get();
+        if (buffer.length < size) {
+            buffer = new int[size];
+            buffers.set(buffer);
+        }
+        int[] counts = new int[NUMBER_OF_BUCKETS];
+        int[] source = data;
+        int sourceFrom = from;
+        int[] destination = buffer;
+        int destinationFrom = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += BITS_PER_PASS) {
+            int signFlip = shift + BITS_PER_PASS == Integer.SIZE ? NUMBER_OF_BUCKETS >>> 1 : 0;
+            Arrays.fill(counts, 0);
+            for (int i = sourceFrom; i < sourceFrom + size; i++) {
+                counts[((source[i] >>> shift) & MASK) ^ signFlip]++;
+            }
+            int position = destinationFrom;
+            for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+                int count = counts[bucket];
+                counts[bucket] = position;
+                position += count;
+            }
+            for (int i = sourceFrom; i < sourceFrom + size; i++) {
+                int value = source[i];
+                destination[counts[((value >>> shift) & MASK) ^ signFlip]++] = value;
+            }
+            int[] array = source;
+            source = destination;
+            destination = array;
+            int arrayFrom = sourceFrom;
+            sourceFrom = destinationFrom;
+            destinationFrom = arrayFrom;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Radix";
+    }
+}
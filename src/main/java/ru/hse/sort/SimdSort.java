@@ -0,0 +1,131 @@
+package ru.hse.sort;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SimdSort implements SortAlgorithm {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final IntVector MAX_VALUES = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+    private static final List<NetworkStage> NETWORK = buildNetwork();
+
+    private final ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[0]);
+
+    @Override
+    public void sort(int[] data, int from, int to) {
+        int[] buffer = buffers.get();
+        if (buffer.length < to - from) {
+            buffer = new int[to - from];
+            buffers.set(buffer);
+        }
+        int depthLimit = 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(to - from, 1)));
+        quickSort(data, from, to, buffer, depthLimit);
+    }
+
+    private static void quickSort(int[] data, int from, int to, int[] buffer, int depthLimit) {
+        while (to - from > LANES) {
+            if (depthLimit-- == 0) {
+                Arrays.sort(data, from, to);
+                return;
+            }
+            int pivot = medianOfThree(data[from], data[(from + to) >>> 1], data[to - 1]);
+            int middle = partition(data, from, to, pivot, true, buffer);
+            if (middle == from) {
+                middle = partition(data, from, to, pivot, false, buffer);
+                if (middle == to) {
+                    return;
+                }
+            }
+            if (middle - from < to - middle) {
+                quickSort(data, from, middle, buffer, depthLimit);
+                from = middle;
+            } else {
+                quickSort(data, middle, to, buffer, depthLimit);
+                to = middle;
+            }
+        }
+        sortSmallBlock(data, from, to);
+    }
+
+    private static int partition(int[] data, int from, int to, int pivot, boolean isStrict, int[] buffer) {
+        IntVector pivots = IntVector.broadcast(SPECIES, pivot);
+        VectorOperators.Comparison comparison = isStrict ? VectorOperators.LT : VectorOperators.LE;
+        int left = 0;
+        int right = to - from;
+        int i = from;
+        for (; i <= to - LANES; i += LANES) {
+            IntVector vector = IntVector.fromArray(SPECIES, data, i);
+            VectorMask<Integer> isLeft = vector.compare(comparison, pivots);
+            int numberOfLeft = isLeft.trueCount();
+            int numberOfRight = LANES - numberOfLeft;
+            vector.compress(isLeft).intoArray(buffer, left);
+            vector.compress(isLeft.not()).intoArray(buffer, right - numberOfRight, SPECIES.indexInRange(0, numberOfRight));
+            left += numberOfLeft;
+            right -= numberOfRight;
+        }
+        for (; i < to; i++) {
+            int value = data[i];
+            if (isStrict ? value < pivot : value <= pivot) {
+                buffer[left++] = value;
+            } else {
+                buffer[--right] = value;
+            }
+        }
+        System.arraycopy(buffer, 0, data, from, to - from);
+        return from + left;
+    }
+
+    private static void sortSmallBlock(int[] data, int from, int to) {
+        VectorMask<Integer> mask = SPECIES.indexInRange(0, to - from);
+        IntVector vector = IntVector.fromArray(SPECIES, data, from, mask).blend(MAX_VALUES, mask.not());
+        for (NetworkStage stage : NETWORK) {
+            IntVector partners = vector.rearrange(stage.partners);
+            vector = vector.min(partners).blend(vector.max(partners), stage.takesMax);
+        }
+        vector.intoArray(data, from, mask);
+    }
+
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static List<NetworkStage> buildNetwork() {
+        List<NetworkStage> network = new ArrayList<>();
+        for (int k = 2; k <= LANES; k <<= 1) {
+            for (int j = k >> 1; j > 0; j >>= 1) {
+                int[] partners = new int[LANES];
+                boolean[] takesMax = new boolean[LANES];
+                for (int lane = 0; lane < LANES; lane++) {
+                    partners[lane] = lane ^ j;
+                    takesMax[lane] = ((lane & k) == 0) != (lane < partners[lane]);
+                }
+                network.add(new NetworkStage(
+                        VectorShuffle.fromArray(SPECIES, partners, 0),
+                        VectorMask.fromArray(SPECIES, takesMax, 0)));
+            }
+        }
+        return network;
+    }
+
+    private static class NetworkStage {
+        private final VectorShuffle<Integer> partners;
+        private final VectorMask<Integer> takesMax;
+
+        private NetworkStage(VectorShuffle<Integer> partners, VectorMask<Integer> takesMax) {
+            this.partners = partners;
+            this.takesMax = takesMax;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Simd";
+    }
+}
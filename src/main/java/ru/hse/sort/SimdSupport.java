@@ -0,0 +1,17 @@
+package ru.hse.sort;
+
+public class SimdSupport {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    public static boolean isAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    public static SortAlgorithm newSortAlgorithm() {
+        if (isAvailable()) {
+            return new SimdSort();
+        }
+        System.err.println("Module " + VECTOR_MODULE + " is not enabled, adaptive sort is used instead");
+        return new AdaptiveSort();
+    }
+}
@@ -0,0 +1,9 @@
+package ru.hse.sort;
+
+public interface SortAlgorithm {
+    void sort(int[] data, int from, int to);
+
+    default void sort(int[] data, int size) {
+        sort(data, 0, size);
+    }
+}
@@ -0,0 +1,172 @@
+package ru.hse.statistics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 40;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int NUMBER_OF_SLOTS = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    private static final int MAX_STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        int numberOfStripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+        stripes = new Stripe[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeMask = numberOfStripes - 1;
+    }
+
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & stripeMask];
+        stripe.counts.incrementAndGet(getSlot(value));
+        stripe.sum.addAndGet(value);
+        stripe.count.incrementAndGet();
+        stripe.max.accumulateAndGet(value, Math::max);
+    }
+
+    public void reset() {
+        for (Stripe stripe : stripes) {
+            for (int i = 0; i < NUMBER_OF_SLOTS; i++) {
+                stripe.counts.set(i, 0);
+            }
+            stripe.sum.set(0);
+            stripe.count.set(0);
+            stripe.max.set(0);
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            count += stripe.count.get();
+        }
+        return count;
+    }
+
+    public long getMean() {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        return getSum() / count;
+    }
+
+    public long getSum() {
+        long sum = 0;
+        for (Stripe stripe : stripes) {
+            sum += stripe.sum.get();
+        }
+        return sum;
+    }
+
+    public long getMax() {
+        long max = 0;
+        for (Stripe stripe : stripes) {
+            max = Math.max(max, stripe.max.get());
+        }
+        return max;
+    }
+
+    public long getValueAtPercentile(double percentile) {
+        long[] counts = getCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100.0) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < NUMBER_OF_SLOTS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getHighestValueInSlot(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public void writeTo(DataOutputStream output) throws IOException {
+        long[] counts = getCounts();
+        int numberOfNonEmptySlots = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                numberOfNonEmptySlots++;
+            }
+        }
+        output.writeInt(numberOfNonEmptySlots);
+        for (int i = 0; i < NUMBER_OF_SLOTS; i++) {
+            if (counts[i] > 0) {
+                output.writeInt(i);
+                output.writeLong(counts[i]);
+            }
+        }
+        output.writeLong(getSum());
+        output.writeLong(getMax());
+    }
+
+    public void addFrom(DataInputStream input) throws IOException {
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & stripeMask];
+        int numberOfNonEmptySlots = input.readInt();
+        for (int i = 0; i < numberOfNonEmptySlots; i++) {
+            int slot = input.readInt();
+            long count = input.readLong();
+            if (slot < 0 || slot >= NUMBER_OF_SLOTS) {
+                throw new IOException("Wrong histogram slot " + slot);
+            }
+            stripe.counts.addAndGet(slot, count);
+            stripe.count.addAndGet(count);
+        }
+        stripe.sum.addAndGet(input.readLong());
+        long max = input.readLong();
+        stripe.max.accumulateAndGet(max, Math::max);
+    }
+
+    private long[] getCounts() {
+        long[] counts = new long[NUMBER_OF_SLOTS];
+        for (Stripe stripe : stripes) {
+            for (int i = 0; i < NUMBER_OF_SLOTS; i++) {
+                counts[i] += stripe.counts.get(i);
+            }
+        }
+        return counts;
+    }
+
+    private static int getSlot(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long getHighestValueInSlot(int slot) {
+        if (slot < SUB_BUCKET_COUNT) {
+            return slot;
+        }
+        int bucket = slot / SUB_BUCKET_COUNT;
+        int subBucket = slot % SUB_BUCKET_COUNT;
+        long lowest = (long) (SUB_BUCKET_COUNT + subBucket) << (bucket - 1);
+        return lowest + (1L << (bucket - 1)) - 1;
+    }
+
+    private static class Stripe {
+        private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_SLOTS);
+        private final AtomicLong sum = new AtomicLong(0);
+        private final AtomicLong count = new AtomicLong(0);
+        private final AtomicLong max = new AtomicLong(0);
+    }
+}
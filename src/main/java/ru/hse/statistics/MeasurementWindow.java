@@ -0,0 +1,111 @@
+package ru.hse.statistics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.*;
+
+public class MeasurementWindow {
+    private static final long SAMPLE_INTERVAL_MILLIS = 250;
+    private static final int NUMBER_OF_SAMPLES = 4;
+    private static final long MAX_STEADY_STATE_WAIT_MILLIS = 30_000;
+
+    private final long warmupMillis;
+    private final long measurementMillis;
+    private final int steadyStateTolerancePercent;
+    private long lastWarmupMillis;
+    private SteadyState steadyState = SteadyState.NOT_CHECKED;
+
+    public MeasurementWindow(long warmupMillis, long measurementMillis, int steadyStateTolerancePercent) {
+        this.warmupMillis = warmupMillis;
+        this.measurementMillis = measurementMillis;
+        this.steadyStateTolerancePercent = steadyStateTolerancePercent;
+    }
+
+    public boolean isEnabled() {
+        return measurementMillis > 0;
+    }
+
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    public long getMeasurementMillis() {
+        return measurementMillis;
+    }
+
+    public int getSteadyStateTolerancePercent() {
+        return steadyStateTolerancePercent;
+    }
+
+    public long getLastWarmupMillis() {
+        return lastWarmupMillis;
+    }
+
+    public SteadyState getSteadyState() {
+        return steadyState;
+    }
+
+    public void measure(Statistics statistics, Callable<Void> load) throws InterruptedException, ExecutionException {
+        ExecutorService loadRunner = Executors.newSingleThreadExecutor();
+        try {
+            if (!isEnabled()) {
+                statistics.reset();
+                loadRunner.submit(load).get();
+                return;
+            }
+            statistics.startWarmup();
+            Future<Void> future = loadRunner.submit(load);
+            long warmupStart = System.nanoTime();
+            warmup(statistics, future);
+            lastWarmupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - warmupStart);
+            statistics.startMeasurements();
+            isFinished(future, measurementMillis);
+            statistics.stopMeasurements();
+            statistics.finishLoad();
+            future.get();
+        } finally {
+            loadRunner.shutdown();
+        }
+    }
+
+    private void warmup(Statistics statistics, Future<Void> load) throws InterruptedException, ExecutionException {
+        steadyState = steadyStateTolerancePercent == 0 ? SteadyState.NOT_CHECKED : SteadyState.NOT_REACHED;
+        if (isFinished(load, warmupMillis) || steadyState == SteadyState.NOT_CHECKED) {
+            return;
+        }
+        Deque<Long> samples = new ArrayDeque<>();
+        long lastNumberOfResponses = statistics.getNumberOfClientResponses();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_STEADY_STATE_WAIT_MILLIS);
+        while (steadyState != SteadyState.REACHED && System.nanoTime() < deadline) {
+            if (isFinished(load, SAMPLE_INTERVAL_MILLIS)) {
+                return;
+            }
+            long numberOfResponses = statistics.getNumberOfClientResponses();
+            samples.addLast(numberOfResponses - lastNumberOfResponses);
+            lastNumberOfResponses = numberOfResponses;
+            if (samples.size() > NUMBER_OF_SAMPLES) {
+                samples.removeFirst();
+            }
+            if (samples.size() == NUMBER_OF_SAMPLES && isStable(samples)) {
+                steadyState = SteadyState.REACHED;
+            }
+        }
+    }
+
+    private boolean isStable(Deque<Long> samples) {
+        double mean = samples.stream().mapToLong(Long::longValue).average().orElse(0);
+        if (mean == 0) {
+            return false;
+        }
+        return samples.stream().allMatch(sample -> Math.abs(sample - mean) * 100 <= steadyStateTolerancePercent * mean);
+    }
+
+    private static boolean isFinished(Future<Void> load, long millis) throws InterruptedException, ExecutionException {
+        try {
+            load.get(millis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+}
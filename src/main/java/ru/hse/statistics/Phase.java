@@ -0,0 +1,34 @@
+package ru.hse.statistics;
+
+public enum Phase {
+    DECODE {
+        @Override
+        public String toString() {
+            return "Decode";
+        }
+    },
+    QUEUE {
+        @Override
+        public String toString() {
+            return "Queue";
+        }
+    },
+    SORT {
+        @Override
+        public String toString() {
+            return "Sort";
+        }
+    },
+    ENCODE {
+        @Override
+        public String toString() {
+            return "Encode";
+        }
+    },
+    WRITE {
+        @Override
+        public String toString() {
+            return "Write";
+        }
+    }
+}
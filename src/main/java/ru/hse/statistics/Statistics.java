@@ -1,60 +1,138 @@
 package ru.hse.statistics;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class Statistics {
     private final AtomicBoolean needMeasurement = new AtomicBoolean(true);
-    private final AtomicLong sumTimeClients = new AtomicLong(0);
-    private final AtomicLong numberOfMeasurementsClients = new AtomicLong(0);
-    private final AtomicLong sumTimeServer = new AtomicLong(0);
-    private final AtomicLong numberOfMeasurementsServer = new AtomicLong(0);
+    private final LatencyHistogram clientLatencies = new LatencyHistogram();
+    private final LatencyHistogram correctedClientLatencies = new LatencyHistogram();
+    private final LatencyHistogram serverLatencies = new LatencyHistogram();
+    private final Map<Phase, LatencyHistogram> phaseLatencies = new EnumMap<>(Phase.class);
+    private final AtomicLong startTime = new AtomicLong(System.nanoTime());
+    private final AtomicLong stopTime = new AtomicLong(0);
+    private final AtomicLong numberOfClientResponses = new AtomicLong(0);
+    private final AtomicBoolean isLoadFinished = new AtomicBoolean(false);
 
-    public void addMeasurementClient(long millis) {
+    public Statistics() {
+        for (Phase phase : Phase.values()) {
+            phaseLatencies.put(phase, new LatencyHistogram());
+        }
+    }
+
+    public void addMeasurementClient(long nanos) {
+        numberOfClientResponses.incrementAndGet();
+        if (needMeasurement.get()) {
+            clientLatencies.record(nanos);
+        }
+    }
+
+    public void addCorrectedMeasurementClient(long nanos) {
+        if (needMeasurement.get()) {
+            correctedClientLatencies.record(nanos);
+        }
+    }
+
+    public void addMeasurementServer(long nanos) {
         if (needMeasurement.get()) {
-            sumTimeClients.addAndGet(millis);
-            numberOfMeasurementsClients.incrementAndGet();
+            serverLatencies.record(nanos);
         }
     }
 
-    public void addMeasurementServer(long millis) {
+    public void addPhaseMeasurement(Phase phase, long nanos) {
         if (needMeasurement.get()) {
-            sumTimeServer.addAndGet(millis);
-            numberOfMeasurementsServer.incrementAndGet();
+            phaseLatencies.get(phase).record(nanos);
         }
     }
 
     public void reset() {
-        sumTimeClients.set(0);
-        sumTimeServer.set(0);
-        numberOfMeasurementsClients.set(0);
-        numberOfMeasurementsServer.set(0);
+        numberOfClientResponses.set(0);
+        isLoadFinished.set(false);
+        clearMeasurements();
         needMeasurement.set(true);
     }
 
-    public void stopMeasurements() {
+    public void startWarmup() {
+        numberOfClientResponses.set(0);
+        isLoadFinished.set(false);
         needMeasurement.set(false);
+        clearMeasurements();
     }
 
-    public long getAverageTimeInMillisClients() {
-        if (numberOfMeasurementsClients.get() == 0) {
-            return 0;
-        }
-        return (sumTimeClients.get() + numberOfMeasurementsClients.get() - 1) / numberOfMeasurementsClients.get();
+    public void startMeasurements() {
+        clearMeasurements();
+        needMeasurement.set(true);
+    }
+
+    private void clearMeasurements() {
+        clientLatencies.reset();
+        correctedClientLatencies.reset();
+        serverLatencies.reset();
+        phaseLatencies.values().forEach(LatencyHistogram::reset);
+        stopTime.set(0);
+        startTime.set(System.nanoTime());
     }
 
-    public long getAverageTimeInMillisServer() {
-        if (numberOfMeasurementsServer.get() == 0) {
-            return 0;
+    public void stopMeasurements() {
+        if (needMeasurement.getAndSet(false)) {
+            stopTime.set(System.nanoTime());
         }
-        return (sumTimeServer.get() + numberOfMeasurementsServer.get() - 1) / numberOfMeasurementsServer.get();
+    }
+
+    public boolean isMeasuring() {
+        return needMeasurement.get();
+    }
+
+    public void finishLoad() {
+        isLoadFinished.set(true);
+    }
+
+    public boolean isLoadFinished() {
+        return isLoadFinished.get();
+    }
+
+    public long getNumberOfClientResponses() {
+        return numberOfClientResponses.get();
+    }
+
+    public LatencyHistogram getClientLatencies() {
+        return clientLatencies;
+    }
+
+    public LatencyHistogram getCorrectedClientLatencies() {
+        return correctedClientLatencies;
+    }
+
+    public LatencyHistogram getServerLatencies() {
+        return serverLatencies;
+    }
+
+    public LatencyHistogram getPhaseLatencies(Phase phase) {
+        return phaseLatencies.get(phase);
+    }
+
+    public long getThroughputClients() {
+        return getThroughput(clientLatencies.getCount());
+    }
+
+    public long getThroughputServer() {
+        return getThroughput(serverLatencies.getCount());
     }
 
     public long getNumberOfMeasurementsClients() {
-        return numberOfMeasurementsClients.get();
+        return clientLatencies.getCount();
     }
 
     public long getNumberOfMeasurementsServer() {
-        return numberOfMeasurementsServer.get();
+        return serverLatencies.getCount();
+    }
+
+    private long getThroughput(long numberOfMeasurements) {
+        long stop = needMeasurement.get() ? System.nanoTime() : stopTime.get();
+        long elapsed = Math.max(1, stop - startTime.get());
+        return numberOfMeasurements * TimeUnit.SECONDS.toNanos(1) / elapsed;
     }
 }
@@ -0,0 +1,22 @@
+package ru.hse.statistics;
+
+public enum SteadyState {
+    NOT_CHECKED {
+        @Override
+        public String toString() {
+            return "NotChecked";
+        }
+    },
+    REACHED {
+        @Override
+        public String toString() {
+            return "Reached";
+        }
+    },
+    NOT_REACHED {
+        @Override
+        public String toString() {
+            return "NotReached";
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.hse.utils;
+
+import org.jetbrains.annotations.NotNull;
+import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public class BatchFrameUtils {
+    public static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int LENGTH_OFFSET = 0;
+    private static final int COUNT_OFFSET = Integer.BYTES;
+
+    public static int getFrameSize(ByteBuffer header) throws ProtocolException {
+        int length = header.getInt(LENGTH_OFFSET);
+        checkHeader(length, header.getInt(COUNT_OFFSET));
+        return HEADER_SIZE + length;
+    }
+
+    public static int getFrameSize(List<IntArray> arrays, WireFormat format) {
+        int size = HEADER_SIZE;
+        for (IntArray array : arrays) {
+            size += format.getFrameSize(array);
+        }
+        return size;
+    }
+
+    public static void write(List<IntArray> arrays, WireFormat format, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        for (IntArray array : arrays) {
+            format.write(array, buffer);
+        }
+        buffer.putInt(start + LENGTH_OFFSET, buffer.position() - start - HEADER_SIZE);
+        buffer.putInt(start + COUNT_OFFSET, arrays.size());
+    }
+
+    @NotNull
+    public static ByteBuffer serialize(List<IntArray> arrays, WireFormat format, ByteBufferPool pool) {
+        ByteBuffer buffer = pool.acquire(getFrameSize(arrays, format));
+        write(arrays, format, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    @NotNull
+    public static List<IntArray> read(ByteBuffer frame, WireFormat format, IntFunction<int[]> allocator) throws IOException {
+        int count = frame.getInt(COUNT_OFFSET);
+        List<IntArray> arrays = new ArrayList<>(count);
+        int position = HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            int remaining = frame.limit() - position;
+            if (remaining < format.getHeaderSize()) {
+                throw new ProtocolException("Batch is truncated");
+            }
+            ByteBuffer innerFrame = frame.slice(position, remaining);
+            int size = format.getFrameSize(innerFrame);
+            if (size > remaining) {
+                throw new ProtocolException("Batch is truncated");
+            }
+            arrays.add(format.read(innerFrame.limit(size), allocator));
+            position += size;
+        }
+        if (position != frame.limit()) {
+            throw new ProtocolException("Batch length does not match its arrays");
+        }
+        return arrays;
+    }
+
+    public static void writeBatch(OutputStream outputStream, List<IntArray> arrays, WireFormat format) throws IOException {
+        ByteBuffer buffer = IoBuffers.acquire(getFrameSize(arrays, format));
+        try {
+            write(arrays, format, buffer);
+            outputStream.write(buffer.array(), 0, buffer.position());
+            outputStream.flush();
+        } finally {
+            IoBuffers.release(buffer);
+        }
+    }
+
+    @NotNull
+    public static List<IntArray> readBatch(InputStream inputStream, WireFormat format) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        int length = dataInputStream.readInt();
+        int count = dataInputStream.readInt();
+        checkHeader(length, count);
+        ByteBuffer frame = IoBuffers.acquire(HEADER_SIZE + length);
+        try {
+            frame.putInt(LENGTH_OFFSET, length);
+            frame.putInt(COUNT_OFFSET, count);
+            if (inputStream.readNBytes(frame.array(), HEADER_SIZE, length) != length) {
+                throw new EOFException();
+            }
+            return read(frame, format, int[]::new);
+        } finally {
+            IoBuffers.release(frame);
+        }
+    }
+
+    private static void checkHeader(int length, int count) throws ProtocolException {
+        if (length < 0 || length > Integer.MAX_VALUE - HEADER_SIZE) {
+            throw new ProtocolException("Wrong batch size: " + length);
+        }
+        if (count < 0 || count > length / Integer.BYTES) {
+            throw new ProtocolException("Wrong number of arrays in batch: " + count);
+        }
+    }
+}
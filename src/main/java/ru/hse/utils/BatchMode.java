@@ -0,0 +1,63 @@
+package ru.hse.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+
+public enum BatchMode {
+    NONE {
+        @Override
+        public String toString() {
+            return "None";
+        }
+    },
+    INDIVIDUAL_RESPONSES {
+        @Override
+        public String toString() {
+            return "IndividualResponses";
+        }
+    },
+    BATCHED_RESPONSES {
+        @Override
+        public String toString() {
+            return "BatchedResponses";
+        }
+    };
+
+    public boolean hasBatchedRequests() {
+        return this != NONE;
+    }
+
+    public boolean hasBatchedResponses() {
+        return this == BATCHED_RESPONSES;
+    }
+
+    public byte getCode() {
+        return (byte) ordinal();
+    }
+
+    @NotNull
+    public static BatchMode fromCode(byte code) throws ProtocolException {
+        if (code < 0 || code >= values().length) {
+            throw new ProtocolException("Unknown batch mode " + code);
+        }
+        return values()[code];
+    }
+
+    @NotNull
+    public static BatchMode readFrom(InputStream inputStream) throws IOException {
+        int code = inputStream.read();
+        if (code < 0) {
+            throw new EOFException();
+        }
+        return fromCode((byte) code);
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(getCode());
+    }
+}
@@ -0,0 +1,131 @@
+package ru.hse.utils;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.jetbrains.annotations.NotNull;
+import ru.hse.data.IntArray;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+public class IntArrayDecoder {
+    private static final int ID_FIELD = 1;
+    private static final int ELEMENTS_FIELD = 2;
+
+    private static final int WIRE_TYPE_VARINT = 0;
+    private static final int WIRE_TYPE_FIXED64 = 1;
+    private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_TYPE_FIXED32 = 5;
+
+    @NotNull
+    public static IntArray decode(ByteBuffer buffer, IntFunction<int[]> allocator) throws InvalidProtocolBufferException {
+        int start = buffer.position();
+        int size = countElements(buffer);
+        buffer.position(start);
+        int[] data = allocator.apply(size);
+        int id = 0;
+        int index = 0;
+        while (buffer.hasRemaining()) {
+            int tag = (int) readVarint(buffer);
+            int field = tag >>> 3;
+            int wireType = tag & 7;
+            if (field == ID_FIELD && wireType == WIRE_TYPE_VARINT) {
+                id = (int) readVarint(buffer);
+            } else if (field == ELEMENTS_FIELD && wireType == WIRE_TYPE_LENGTH_DELIMITED) {
+                int end = readLength(buffer) + buffer.position();
+                while (buffer.position() < end) {
+                    checkIndex(index, size);
+                    data[index++] = (int) readVarint(buffer);
+                }
+                if (buffer.position() != end) {
+                    throw new InvalidProtocolBufferException("Packed elements overrun their length");
+                }
+            } else if (field == ELEMENTS_FIELD && wireType == WIRE_TYPE_VARINT) {
+                checkIndex(index, size);
+                data[index++] = (int) readVarint(buffer);
+            } else {
+                skipField(buffer, wireType);
+            }
+        }
+        return new IntArray(id, data, size);
+    }
+
+    private static int countElements(ByteBuffer buffer) throws InvalidProtocolBufferException {
+        int size = 0;
+        while (buffer.hasRemaining()) {
+            int tag = (int) readVarint(buffer);
+            int field = tag >>> 3;
+            int wireType = tag & 7;
+            if (field == ELEMENTS_FIELD && wireType == WIRE_TYPE_LENGTH_DELIMITED) {
+                int length = readLength(buffer);
+                int end = buffer.position() + length;
+                for (int i = buffer.position(); i < end; i++) {
+                    if (buffer.get(i) >= 0) {
+                        size++;
+                    }
+                }
+                buffer.position(end);
+            } else if (field == ELEMENTS_FIELD && wireType == WIRE_TYPE_VARINT) {
+                readVarint(buffer);
+                size++;
+            } else {
+                skipField(buffer, wireType);
+            }
+        }
+        return size;
+    }
+
+    private static void checkIndex(int index, int size) throws InvalidProtocolBufferException {
+        if (index >= size) {
+            throw new InvalidProtocolBufferException("Malformed packed elements");
+        }
+    }
+
+    private static void skipField(ByteBuffer buffer, int wireType) throws InvalidProtocolBufferException {
+        switch (wireType) {
+            case WIRE_TYPE_VARINT:
+                readVarint(buffer);
+                break;
+            case WIRE_TYPE_FIXED64:
+                skip(buffer, Long.BYTES);
+                break;
+            case WIRE_TYPE_LENGTH_DELIMITED:
+                skip(buffer, readLength(buffer));
+                break;
+            case WIRE_TYPE_FIXED32:
+                skip(buffer, Integer.BYTES);
+                break;
+            default:
+                throw new InvalidProtocolBufferException("Unsupported wire type " + wireType);
+        }
+    }
+
+    private static int readLength(ByteBuffer buffer) throws InvalidProtocolBufferException {
+        int length = (int) readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new InvalidProtocolBufferException("Wrong length of field: " + length);
+        }
+        return length;
+    }
+
+    private static void skip(ByteBuffer buffer, int length) throws InvalidProtocolBufferException {
+        if (length > buffer.remaining()) {
+            throw new InvalidProtocolBufferException("Message is truncated");
+        }
+        buffer.position(buffer.position() + length);
+    }
+
+    private static long readVarint(ByteBuffer buffer) throws InvalidProtocolBufferException {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new InvalidProtocolBufferException("Message is truncated");
+            }
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new InvalidProtocolBufferException("Malformed varint");
+    }
+}
@@ -0,0 +1,70 @@
+package ru.hse.utils;
+
+import ru.hse.data.IntArray;
+
+import java.nio.ByteBuffer;
+
+public class IntArrayEncoder {
+    private static final byte ID_TAG = 1 << 3;
+    private static final byte ELEMENTS_TAG = 2 << 3 | 2;
+    private static final int MAX_VARINT_SIZE = 10;
+
+    public static int computeElementsSize(IntArray array) {
+        int[] data = array.getData();
+        int size = 0;
+        for (int i = 0; i < array.getSize(); i++) {
+            size += computeVarintSize(data[i]);
+        }
+        return size;
+    }
+
+    public static int computeSize(IntArray array, int elementsSize) {
+        int size = 0;
+        if (array.getId() != 0) {
+            size += 1 + computeVarintSize(array.getId());
+        }
+        if (array.getSize() > 0) {
+            size += 1 + computeVarintSize(elementsSize) + elementsSize;
+        }
+        return size;
+    }
+
+    public static void encode(IntArray array, int elementsSize, ByteBuffer buffer) {
+        if (array.getId() != 0) {
+            buffer.put(ID_TAG);
+            writeVarint(buffer, array.getId());
+        }
+        if (array.getSize() > 0) {
+            buffer.put(ELEMENTS_TAG);
+            writeVarint(buffer, elementsSize);
+            int[] data = array.getData();
+            for (int i = 0; i < array.getSize(); i++) {
+                writeVarint(buffer, data[i]);
+            }
+        }
+    }
+
+    private static int computeVarintSize(int value) {
+        if (value < 0) {
+            return MAX_VARINT_SIZE;
+        }
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            long longValue = value;
+            for (int i = 0; i < MAX_VARINT_SIZE - 1; i++) {
+                buffer.put((byte) (longValue & 0x7F | 0x80));
+                longValue >>>= 7;
+            }
+            buffer.put((byte) longValue);
+            return;
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -2,8 +2,16 @@ package ru.hse.utils;
 
 public class IntArraysUtils {
     public static void sort(int[] data) {
-        for (int k = 0; k < data.length - 1; k++) {
-            for (int i = 0; i < data.length - 1; i++) {
+        sort(data, data.length);
+    }
+
+    public static void sort(int[] data, int size) {
+        sort(data, 0, size);
+    }
+
+    public static void sort(int[] data, int from, int to) {
+        for (int k = from; k < to - 1; k++) {
+            for (int i = from; i < to - 1; i++) {
                 if (data[i] > data[i + 1]) {
                     int t = data[i + 1];
                     data[i + 1] = data[i];
@@ -12,4 +20,20 @@ public class IntArraysUtils {
             }
         }
     }
+
+    public static void merge(int[] data, int from, int middle, int to, int[] buffer) {
+        int i = from;
+        int j = middle;
+        int k = from;
+        while (i < middle && j < to) {
+            buffer[k++] = data[i] <= data[j] ? data[i++] : data[j++];
+        }
+        while (i < middle) {
+            buffer[k++] = data[i++];
+        }
+        while (j < to) {
+            buffer[k++] = data[j++];
+        }
+        System.arraycopy(buffer, from, data, from, to - from);
+    }
 }
@@ -0,0 +1,17 @@
+package ru.hse.utils;
+
+import ru.hse.pool.ByteBufferPool;
+
+import java.nio.ByteBuffer;
+
+class IoBuffers {
+    private static final ByteBufferPool pool = new ByteBufferPool(false);
+
+    public static ByteBuffer acquire(int size) {
+        return pool.acquire(size);
+    }
+
+    public static void release(ByteBuffer buffer) {
+        pool.release(buffer);
+    }
+}
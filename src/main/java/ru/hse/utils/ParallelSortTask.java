@@ -0,0 +1,36 @@
+package ru.hse.utils;
+
+import ru.hse.sort.SortAlgorithm;
+
+import java.util.concurrent.RecursiveAction;
+
+@SuppressWarnings("serial")
+public class ParallelSortTask extends RecursiveAction {
+    private final SortAlgorithm sortAlgorithm;
+    private final int[] data;
+    private final int[] buffer;
+    private final int from;
+    private final int to;
+    private final int threshold;
+
+    public ParallelSortTask(SortAlgorithm sortAlgorithm, int[] data, int[] buffer, int from, int to, int threshold) {
+        this.sortAlgorithm = sortAlgorithm;
+        this.data = data;
+        this.buffer = buffer;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= threshold) {
+            sortAlgorithm.sort(data, from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ParallelSortTask(sortAlgorithm, data, buffer, from, middle, threshold),
+                new ParallelSortTask(sortAlgorithm, data, buffer, middle, to, threshold));
+        IntArraysUtils.merge(data, from, middle, to, buffer);
+    }
+}
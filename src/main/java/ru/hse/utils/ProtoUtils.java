@@ -2,39 +2,56 @@ package ru.hse.utils;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import org.jetbrains.annotations.NotNull;
-import ru.hse.data.ArrayProtos;
 import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+import ru.hse.pool.IntArrayPool;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.util.stream.IntStream;
 
 public class ProtoUtils {
-
     public static void writeArray(OutputStream outputStream, IntArray array) throws IOException {
-        Iterable<Integer> iterable = () -> IntStream.of(array.getData()).iterator();
-        ArrayProtos.IntArray responseArray = ArrayProtos.IntArray.newBuilder().
-                setId(array.getId()).
-                addAllElements(iterable).
-                build();
-        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
-        byte[] data = responseArray.toByteArray();
-        dataOutputStream.writeInt(data.length);
-        outputStream.write(data);
-        outputStream.flush();
+        int elementsSize = IntArrayEncoder.computeElementsSize(array);
+        int size = IntArrayEncoder.computeSize(array, elementsSize);
+        ByteBuffer buffer = IoBuffers.acquire(size + Integer.BYTES);
+        try {
+            buffer.putInt(size);
+            IntArrayEncoder.encode(array, elementsSize, buffer);
+            outputStream.write(buffer.array(), 0, buffer.position());
+            outputStream.flush();
+        } finally {
+            IoBuffers.release(buffer);
+        }
+    }
+
+    public static int getFrameSize(IntArray array) {
+        return Integer.BYTES + IntArrayEncoder.computeSize(array, IntArrayEncoder.computeElementsSize(array));
+    }
+
+    public static void write(IntArray array, ByteBuffer buffer) {
+        int elementsSize = IntArrayEncoder.computeElementsSize(array);
+        buffer.putInt(IntArrayEncoder.computeSize(array, elementsSize));
+        IntArrayEncoder.encode(array, elementsSize, buffer);
     }
 
     @NotNull
     public static ByteBuffer serialize(IntArray array) {
-        Iterable<Integer> iterable = () -> IntStream.of(array.getData()).iterator();
-        ArrayProtos.IntArray responseArray = ArrayProtos.IntArray.newBuilder().
-                setId(array.getId()).
-                addAllElements(iterable).
-                build();
-        byte[] data = responseArray.toByteArray();
-        ByteBuffer buffer = ByteBuffer.allocate(data.length + Integer.BYTES);
-        buffer.putInt(data.length);
-        buffer.put(data);
+        int elementsSize = IntArrayEncoder.computeElementsSize(array);
+        int size = IntArrayEncoder.computeSize(array, elementsSize);
+        ByteBuffer buffer = ByteBuffer.allocate(size + Integer.BYTES);
+        buffer.putInt(size);
+        IntArrayEncoder.encode(array, elementsSize, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    @NotNull
+    public static ByteBuffer serialize(IntArray array, ByteBufferPool pool) {
+        int elementsSize = IntArrayEncoder.computeElementsSize(array);
+        int size = IntArrayEncoder.computeSize(array, elementsSize);
+        ByteBuffer buffer = pool.acquire(size + Integer.BYTES);
+        buffer.putInt(size);
+        IntArrayEncoder.encode(array, elementsSize, buffer);
         buffer.flip();
         return buffer;
     }
@@ -43,17 +60,24 @@ public class ProtoUtils {
     public static IntArray readArray(InputStream inputStream) throws IOException {
         DataInputStream dataInputStream = new DataInputStream(inputStream);
         int size = dataInputStream.readInt();
-        ArrayProtos.IntArray requestArray = ArrayProtos.IntArray.parseFrom(inputStream.readNBytes(size));
-        int[] data = requestArray.getElementsList().stream().mapToInt(i -> i).toArray();
-        int id = requestArray.getId();
-        return new IntArray(id, data);
+        ByteBuffer buffer = IoBuffers.acquire(size);
+        try {
+            if (inputStream.readNBytes(buffer.array(), 0, size) != size) {
+                throw new EOFException();
+            }
+            return IntArrayDecoder.decode(buffer, int[]::new);
+        } finally {
+            IoBuffers.release(buffer);
+        }
     }
 
     @NotNull
     public static IntArray readArray(ByteBuffer buffer) throws InvalidProtocolBufferException {
-        ArrayProtos.IntArray requestArray = ArrayProtos.IntArray.parseFrom(buffer);
-        int[] data = requestArray.getElementsList().stream().mapToInt(i -> i).toArray();
-        int id = requestArray.getId();
-        return new IntArray(id, data);
+        return IntArrayDecoder.decode(buffer, int[]::new);
+    }
+
+    @NotNull
+    public static IntArray readArray(ByteBuffer buffer, IntArrayPool pool) throws InvalidProtocolBufferException {
+        return IntArrayDecoder.decode(buffer, pool::acquire);
     }
 }
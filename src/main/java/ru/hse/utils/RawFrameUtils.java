@@ -0,0 +1,95 @@
+package ru.hse.utils;
+
+import org.jetbrains.annotations.NotNull;
+import ru.hse.data.IntArray;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.function.IntFunction;
+
+public class RawFrameUtils {
+    public static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_NUMBER_OF_ELEMENTS = (Integer.MAX_VALUE - HEADER_SIZE) / Integer.BYTES;
+    private static final int ID_INDEX = 0;
+    private static final int COUNT_INDEX = 1;
+
+    public static int getFrameSize(ByteBuffer header) throws ProtocolException {
+        int count = 0;
+        for (int i = Integer.BYTES - 1; i >= 0; i--) {
+            count = count << Byte.SIZE | header.get(COUNT_INDEX * Integer.BYTES + i) & 0xFF;
+        }
+        if (count < 0 || count > MAX_NUMBER_OF_ELEMENTS) {
+            throw new ProtocolException("Wrong number of elements: " + count);
+        }
+        return HEADER_SIZE + count * Integer.BYTES;
+    }
+
+    public static int getFrameSize(IntArray array) {
+        return HEADER_SIZE + array.getSize() * Integer.BYTES;
+    }
+
+    public static void writeArray(OutputStream outputStream, IntArray array) throws IOException {
+        ByteBuffer buffer = IoBuffers.acquire(getFrameSize(array));
+        try {
+            write(array, buffer);
+            outputStream.write(buffer.array(), 0, buffer.position());
+            outputStream.flush();
+        } finally {
+            IoBuffers.release(buffer);
+        }
+    }
+
+    @NotNull
+    public static IntArray readArray(InputStream inputStream) throws IOException {
+        ByteBuffer header = IoBuffers.acquire(HEADER_SIZE);
+        ByteBuffer frame = null;
+        try {
+            readFully(inputStream, header);
+            int size = getFrameSize(header);
+            frame = IoBuffers.acquire(size);
+            header.get(frame.array(), 0, HEADER_SIZE);
+            frame.position(HEADER_SIZE);
+            readFully(inputStream, frame);
+            return readArray(frame, int[]::new);
+        } finally {
+            IoBuffers.release(header);
+            if (frame != null) {
+                IoBuffers.release(frame);
+            }
+        }
+    }
+
+    public static void write(IntArray array, ByteBuffer buffer) {
+        IntBuffer ints = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        ints.put(ID_INDEX, array.getId());
+        ints.put(COUNT_INDEX, array.getSize());
+        ints.position(HEADER_SIZE / Integer.BYTES);
+        ints.put(array.getData(), 0, array.getSize());
+        buffer.position(buffer.position() + getFrameSize(array));
+    }
+
+    @NotNull
+    public static IntArray readArray(ByteBuffer frame, IntFunction<int[]> allocator) {
+        IntBuffer ints = frame.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int id = ints.get(ID_INDEX);
+        int size = ints.get(COUNT_INDEX);
+        int[] data = allocator.apply(size);
+        ints.position(HEADER_SIZE / Integer.BYTES);
+        ints.get(data, 0, size);
+        return new IntArray(id, data, size);
+    }
+
+    private static void readFully(InputStream inputStream, ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        if (inputStream.readNBytes(buffer.array(), buffer.position(), length) != length) {
+            throw new EOFException();
+        }
+        buffer.position(0);
+    }
+}
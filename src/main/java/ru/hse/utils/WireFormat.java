@@ -0,0 +1,180 @@
+package ru.hse.utils;
+
+import org.jetbrains.annotations.NotNull;
+import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+import ru.hse.pool.IntArrayPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+public enum WireFormat {
+    PROTOBUF(Integer.BYTES) {
+        @Override
+        public int getFrameSize(ByteBuffer header) throws ProtocolException {
+            int size = header.getInt(0);
+            if (size < 0 || size > Integer.MAX_VALUE - Integer.BYTES) {
+                throw new ProtocolException("Wrong message size: " + size);
+            }
+            return Integer.BYTES + size;
+        }
+
+        @Override
+        public int getFrameSize(IntArray array) {
+            return ProtoUtils.getFrameSize(array);
+        }
+
+        @Override
+        public IntArray read(ByteBuffer frame, IntFunction<int[]> allocator) throws IOException {
+            frame.position(Integer.BYTES);
+            return IntArrayDecoder.decode(frame, allocator);
+        }
+
+        @Override
+        public void write(IntArray array, ByteBuffer buffer) {
+            ProtoUtils.write(array, buffer);
+        }
+
+        @Override
+        public IntArray decode(ByteBuffer frame, IntArrayPool arrayPool, ByteBufferPool bufferPool) throws IOException {
+            IntArray array = read(frame, arrayPool::acquire);
+            bufferPool.release(frame);
+            return array;
+        }
+
+        @Override
+        public ByteBuffer encode(IntArray array, ByteBuffer frame, ByteBufferPool bufferPool) {
+            return ProtoUtils.serialize(array, bufferPool);
+        }
+
+        @Override
+        public IntArray readArray(InputStream inputStream) throws IOException {
+            return ProtoUtils.readArray(inputStream);
+        }
+
+        @Override
+        public void writeArray(OutputStream outputStream, IntArray array) throws IOException {
+            ProtoUtils.writeArray(outputStream, array);
+        }
+
+        @Override
+        public String toString() {
+            return "Protobuf";
+        }
+    },
+    RAW(RawFrameUtils.HEADER_SIZE) {
+        @Override
+        public int getFrameSize(ByteBuffer header) throws ProtocolException {
+            return RawFrameUtils.getFrameSize(header);
+        }
+
+        @Override
+        public int getFrameSize(IntArray array) {
+            return RawFrameUtils.getFrameSize(array);
+        }
+
+        @Override
+        public IntArray read(ByteBuffer frame, IntFunction<int[]> allocator) {
+            return RawFrameUtils.readArray(frame, allocator);
+        }
+
+        @Override
+        public void write(IntArray array, ByteBuffer buffer) {
+            RawFrameUtils.write(array, buffer);
+        }
+
+        @Override
+        public IntArray decode(ByteBuffer frame, IntArrayPool arrayPool, ByteBufferPool bufferPool) {
+            return read(frame, arrayPool::acquire);
+        }
+
+        @Override
+        public ByteBuffer encode(IntArray array, ByteBuffer frame, ByteBufferPool bufferPool) {
+            frame.clear();
+            write(array, frame);
+            frame.flip();
+            return frame;
+        }
+
+        @Override
+        public IntArray readArray(InputStream inputStream) throws IOException {
+            return RawFrameUtils.readArray(inputStream);
+        }
+
+        @Override
+        public void writeArray(OutputStream outputStream, IntArray array) throws IOException {
+            RawFrameUtils.writeArray(outputStream, array);
+        }
+
+        @Override
+        public String toString() {
+            return "Raw";
+        }
+    };
+
+    public static final int MAX_HEADER_SIZE = RawFrameUtils.HEADER_SIZE;
+
+    private final int headerSize;
+
+    WireFormat(int headerSize) {
+        this.headerSize = headerSize;
+    }
+
+    public int getHeaderSize() {
+        return headerSize;
+    }
+
+    public byte getCode() {
+        return (byte) ordinal();
+    }
+
+    @NotNull
+    public static WireFormat fromCode(byte code) throws ProtocolException {
+        if (code < 0 || code >= values().length) {
+            throw new ProtocolException("Unknown wire format " + code);
+        }
+        return values()[code];
+    }
+
+    @NotNull
+    public static WireFormat readFrom(InputStream inputStream) throws IOException {
+        int code = inputStream.read();
+        if (code < 0) {
+            throw new EOFException();
+        }
+        return fromCode((byte) code);
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(getCode());
+    }
+
+    public abstract int getFrameSize(ByteBuffer header) throws ProtocolException;
+
+    public abstract int getFrameSize(IntArray array);
+
+    public abstract IntArray read(ByteBuffer frame, IntFunction<int[]> allocator) throws IOException;
+
+    public abstract void write(IntArray array, ByteBuffer buffer);
+
+    public abstract IntArray decode(ByteBuffer frame, IntArrayPool arrayPool, ByteBufferPool bufferPool) throws IOException;
+
+    public abstract ByteBuffer encode(IntArray array, ByteBuffer frame, ByteBufferPool bufferPool);
+
+    @NotNull
+    public ByteBuffer encode(IntArray array, ByteBufferPool bufferPool) {
+        ByteBuffer buffer = bufferPool.acquire(getFrameSize(array));
+        write(array, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    public abstract IntArray readArray(InputStream inputStream) throws IOException;
+
+    public abstract void writeArray(OutputStream outputStream, IntArray array) throws IOException;
+}
@@ -0,0 +1,27 @@
+package ru.hse.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MetricsExporterTest {
+    @Test
+    public void testFormatKeepsIntegerDigits() {
+        assertEquals("100000", MetricsExporter.format(100000));
+        assertEquals("1234567", MetricsExporter.format(1234567));
+        assertEquals("0", MetricsExporter.format(0));
+    }
+
+    @Test
+    public void testFormatKeepsFractionalDigits() {
+        assertEquals("150000.4", MetricsExporter.format(150000.4));
+        assertEquals("0.000123456", MetricsExporter.format(0.000123456));
+    }
+
+    @Test
+    public void testFormatStripsTrailingZeros() {
+        assertEquals("50", MetricsExporter.format(0.5 * 100));
+        assertEquals("99.9", MetricsExporter.format(0.999 * 100));
+        assertEquals("2.5", MetricsExporter.format(2.50));
+    }
+}
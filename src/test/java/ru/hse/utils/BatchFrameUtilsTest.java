@@ -0,0 +1,90 @@
+package ru.hse.utils;
+
+import org.junit.jupiter.api.Test;
+import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BatchFrameUtilsTest {
+    private static final List<IntArray> ARRAYS = List.of(
+            new IntArray(1, new int[]{5, -1, 0, Integer.MAX_VALUE, Integer.MIN_VALUE}),
+            new IntArray(-2, new int[0]),
+            new IntArray(0, new int[]{-300}),
+            new IntArray(4, new int[]{3, 2, 1, 100, 200}, 3));
+
+    @Test
+    public void testBufferRoundTrip() throws IOException {
+        for (WireFormat format : WireFormat.values()) {
+            ByteBuffer buffer = BatchFrameUtils.serialize(ARRAYS, format, new ByteBufferPool());
+            assertEquals(BatchFrameUtils.getFrameSize(ARRAYS, format), buffer.remaining());
+            assertEquals(buffer.remaining(), BatchFrameUtils.getFrameSize(buffer));
+            assertArraysEqual(ARRAYS, BatchFrameUtils.read(buffer, format, int[]::new));
+        }
+    }
+
+    @Test
+    public void testEmptyBatchRoundTrip() throws IOException {
+        for (WireFormat format : WireFormat.values()) {
+            ByteBuffer buffer = BatchFrameUtils.serialize(List.of(), format, new ByteBufferPool());
+            assertEquals(BatchFrameUtils.HEADER_SIZE, buffer.remaining());
+            assertEquals(0, BatchFrameUtils.read(buffer, format, int[]::new).size());
+        }
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws IOException {
+        for (WireFormat format : WireFormat.values()) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            BatchFrameUtils.writeBatch(outputStream, ARRAYS, format);
+            BatchFrameUtils.writeBatch(outputStream, List.of(), format);
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+            assertArraysEqual(ARRAYS, BatchFrameUtils.readBatch(inputStream, format));
+            assertEquals(0, BatchFrameUtils.readBatch(inputStream, format).size());
+        }
+    }
+
+    @Test
+    public void testInnerFramesMatchSingleArrayFrames() {
+        for (WireFormat format : WireFormat.values()) {
+            ByteBuffer batch = BatchFrameUtils.serialize(ARRAYS, format, new ByteBufferPool());
+            batch.position(BatchFrameUtils.HEADER_SIZE);
+            for (IntArray array : ARRAYS) {
+                ByteBuffer frame = ByteBuffer.allocate(format.getFrameSize(array));
+                format.write(array, frame);
+                frame.flip();
+                assertEquals(frame, batch.slice(batch.position(), frame.remaining()));
+                batch.position(batch.position() + frame.remaining());
+            }
+            assertEquals(batch.limit(), batch.position());
+        }
+    }
+
+    @Test
+    public void testMismatchedLengthIsRejected() {
+        for (WireFormat format : WireFormat.values()) {
+            ByteBuffer buffer = BatchFrameUtils.serialize(ARRAYS, format, new ByteBufferPool());
+            buffer.putInt(Integer.BYTES, ARRAYS.size() - 1);
+            assertThrows(ProtocolException.class, () -> BatchFrameUtils.read(buffer, format, int[]::new));
+        }
+    }
+
+    private static void assertArraysEqual(List<IntArray> expected, List<IntArray> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertArrayEquals(Arrays.copyOf(expected.get(i).getData(), expected.get(i).getSize()),
+                    Arrays.copyOf(actual.get(i).getData(), actual.get(i).getSize()));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.hse.utils;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.junit.jupiter.api.Test;
+import ru.hse.data.ArrayProtos;
+import ru.hse.data.IntArray;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IntArrayDecoderTest {
+    @Test
+    public void testDecodeProtobufMessage() throws InvalidProtocolBufferException {
+        int[] data = {5, -1, 0, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, -300};
+        IntArray array = decode(toProto(42, data).toByteArray());
+        assertEquals(42, array.getId());
+        assertArrayEquals(data, Arrays.copyOf(array.getData(), array.getSize()));
+    }
+
+    @Test
+    public void testDecodeEmptyArray() throws InvalidProtocolBufferException {
+        IntArray array = decode(toProto(7, new int[0]).toByteArray());
+        assertEquals(7, array.getId());
+        assertEquals(0, array.getSize());
+    }
+
+    @Test
+    public void testDecodeEmptyMessage() throws InvalidProtocolBufferException {
+        IntArray array = decode(new byte[0]);
+        assertEquals(0, array.getId());
+        assertEquals(0, array.getSize());
+    }
+
+    @Test
+    public void testDecodeNegativeId() throws InvalidProtocolBufferException {
+        IntArray array = decode(toProto(-3, new int[]{-3}).toByteArray());
+        assertEquals(-3, array.getId());
+        assertArrayEquals(new int[]{-3}, Arrays.copyOf(array.getData(), array.getSize()));
+    }
+
+    @Test
+    public void testDecodeUnpackedElements() throws InvalidProtocolBufferException {
+        byte[] message = {2 << 3, 1, 2 << 3, 2, 1 << 3, 9, 2 << 3, 3};
+        IntArray array = decode(message);
+        assertEquals(9, array.getId());
+        assertArrayEquals(new int[]{1, 2, 3}, Arrays.copyOf(array.getData(), array.getSize()));
+    }
+
+    @Test
+    public void testDecodeIntoLargerArray() throws InvalidProtocolBufferException {
+        int[] data = {3, 1, 2};
+        IntArray array = IntArrayDecoder.decode(ByteBuffer.wrap(toProto(1, data).toByteArray()), size -> new int[size + 10]);
+        assertEquals(data.length, array.getSize());
+        assertArrayEquals(data, Arrays.copyOf(array.getData(), array.getSize()));
+    }
+
+    @Test
+    public void testDecodeTruncatedMessage() {
+        byte[] message = toProto(1, new int[]{1, 2, 3}).toByteArray();
+        assertThrows(InvalidProtocolBufferException.class, () -> decode(Arrays.copyOf(message, message.length - 1)));
+    }
+
+    private static IntArray decode(byte[] message) throws InvalidProtocolBufferException {
+        return IntArrayDecoder.decode(ByteBuffer.wrap(message), int[]::new);
+    }
+
+    private static ArrayProtos.IntArray toProto(int id, int[] data) {
+        return ArrayProtos.IntArray.newBuilder().
+                setId(id).
+                addAllElements(Arrays.stream(data).boxed().collect(Collectors.toList())).
+                build();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.hse.utils;
+
+import org.junit.jupiter.api.Test;
+import ru.hse.data.ArrayProtos;
+import ru.hse.data.IntArray;
+import ru.hse.pool.ByteBufferPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IntArrayEncoderTest {
+    @Test
+    public void testEncodeMatchesProtobuf() throws IOException {
+        assertMatchesProtobuf(42, new int[]{5, -1, 0, 127, 128, 16384, Integer.MAX_VALUE, Integer.MIN_VALUE, -300});
+    }
+
+    @Test
+    public void testEncodeEmptyArrayMatchesProtobuf() throws IOException {
+        assertMatchesProtobuf(7, new int[0]);
+        assertMatchesProtobuf(0, new int[0]);
+    }
+
+    @Test
+    public void testEncodeNegativeIdMatchesProtobuf() throws IOException {
+        assertMatchesProtobuf(-1, new int[]{-1, -2});
+        assertMatchesProtobuf(0, new int[]{0});
+    }
+
+    @Test
+    public void testEncodeRandomArraysMatchesProtobuf() throws IOException {
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            assertMatchesProtobuf(random.nextInt(), random.ints(random.nextInt(1000)).toArray());
+        }
+    }
+
+    @Test
+    public void testEncodeOnlyFirstSizeElements() throws IOException {
+        int[] data = {3, -2, 1, 100, 200};
+        IntArray array = new IntArray(1, data, 3);
+        assertArrayEquals(withLength(toProto(1, Arrays.copyOf(data, 3)).toByteArray()), toBytes(ProtoUtils.serialize(array)));
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws IOException {
+        int[] data = {-5, 0, 5, Integer.MIN_VALUE};
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ProtoUtils.writeArray(outputStream, new IntArray(9, data));
+        ProtoUtils.writeArray(outputStream, new IntArray(10, new int[0]));
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+        IntArray first = ProtoUtils.readArray(inputStream);
+        IntArray second = ProtoUtils.readArray(inputStream);
+        assertEquals(9, first.getId());
+        assertArrayEquals(data, Arrays.copyOf(first.getData(), first.getSize()));
+        assertEquals(10, second.getId());
+        assertEquals(0, second.getSize());
+    }
+
+    private static void assertMatchesProtobuf(int id, int[] data) throws IOException {
+        IntArray array = new IntArray(id, data);
+        byte[] expected = withLength(toProto(id, data).toByteArray());
+        assertArrayEquals(expected, toBytes(ProtoUtils.serialize(array)));
+        assertArrayEquals(expected, toBytes(ProtoUtils.serialize(array, new ByteBufferPool())));
+        assertEquals(expected.length, ProtoUtils.getFrameSize(array));
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+        ProtoUtils.write(array, buffer);
+        assertArrayEquals(expected, buffer.array());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ProtoUtils.writeArray(outputStream, array);
+        assertArrayEquals(expected, outputStream.toByteArray());
+    }
+
+    private static byte[] withLength(byte[] message) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        dataOutputStream.writeInt(message.length);
+        dataOutputStream.write(message);
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static ArrayProtos.IntArray toProto(int id, int[] data) {
+        return ArrayProtos.IntArray.newBuilder().
+                setId(id).
+                addAllElements(Arrays.stream(data).boxed().collect(Collectors.toList())).
+                build();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.hse.utils;
+
+import org.junit.jupiter.api.Test;
+import ru.hse.data.IntArray;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RawFrameUtilsTest {
+    @Test
+    public void testBufferRoundTrip() throws ProtocolException {
+        assertBufferRoundTrip(42, new int[]{5, -1, 0, Integer.MAX_VALUE, Integer.MIN_VALUE, -300});
+        assertBufferRoundTrip(-7, new int[]{-7});
+        assertBufferRoundTrip(3, new int[0]);
+    }
+
+    @Test
+    public void testFrameLayout() {
+        ByteBuffer buffer = ByteBuffer.allocate(RawFrameUtils.getFrameSize(new IntArray(1, new int[]{-2})));
+        RawFrameUtils.write(new IntArray(1, new int[]{-2}), buffer);
+        ByteBuffer expected = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN).putInt(1).putInt(1).putInt(-2);
+        assertArrayEquals(expected.array(), buffer.array());
+    }
+
+    @Test
+    public void testWriteOnlyFirstSizeElements() throws ProtocolException {
+        int[] data = {3, -2, 1, 100};
+        IntArray array = new IntArray(1, data, 2);
+        ByteBuffer buffer = ByteBuffer.allocate(RawFrameUtils.getFrameSize(array));
+        RawFrameUtils.write(array, buffer);
+        buffer.flip();
+        assertEquals(buffer.limit(), RawFrameUtils.getFrameSize(buffer));
+        IntArray result = RawFrameUtils.readArray(buffer, int[]::new);
+        assertArrayEquals(new int[]{3, -2}, Arrays.copyOf(result.getData(), result.getSize()));
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws IOException {
+        int[] data = {-5, 0, 5, Integer.MIN_VALUE};
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        RawFrameUtils.writeArray(outputStream, new IntArray(9, data));
+        RawFrameUtils.writeArray(outputStream, new IntArray(10, new int[0]));
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+        IntArray first = RawFrameUtils.readArray(inputStream);
+        IntArray second = RawFrameUtils.readArray(inputStream);
+        assertEquals(9, first.getId());
+        assertArrayEquals(data, Arrays.copyOf(first.getData(), first.getSize()));
+        assertEquals(10, second.getId());
+        assertEquals(0, second.getSize());
+    }
+
+    @Test
+    public void testReadTruncatedStream() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        RawFrameUtils.writeArray(outputStream, new IntArray(1, new int[]{1, 2, 3}));
+        byte[] frame = outputStream.toByteArray();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(Arrays.copyOf(frame, frame.length - 1));
+        assertThrows(EOFException.class, () -> RawFrameUtils.readArray(inputStream));
+    }
+
+    @Test
+    public void testNegativeCountIsRejected() {
+        ByteBuffer header = ByteBuffer.allocate(RawFrameUtils.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN).putInt(1).putInt(-1);
+        assertThrows(ProtocolException.class, () -> RawFrameUtils.getFrameSize(header));
+    }
+
+    private static void assertBufferRoundTrip(int id, int[] data) throws ProtocolException {
+        IntArray array = new IntArray(id, data);
+        ByteBuffer buffer = ByteBuffer.allocate(RawFrameUtils.getFrameSize(array));
+        RawFrameUtils.write(array, buffer);
+        assertEquals(buffer.capacity(), buffer.position());
+        buffer.flip();
+        assertEquals(buffer.limit(), RawFrameUtils.getFrameSize(buffer));
+        IntArray result = RawFrameUtils.readArray(buffer, int[]::new);
+        assertEquals(id, result.getId());
+        assertArrayEquals(data, Arrays.copyOf(result.getData(), result.getSize()));
+    }
+}